@@ -0,0 +1,44 @@
+package org.example.testtask.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.support.TradeFileGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Shared inputs for the benchmarks: the bundled product catalog and deterministic trade files.
+ */
+final class BenchmarkData {
+
+    static final String PRODUCTS_RESOURCE = "largeSizeProduct.csv";
+
+    private BenchmarkData() {
+    }
+
+    static String productsCsv() {
+        try (InputStream in = BenchmarkData.class.getClassLoader().getResourceAsStream(PRODUCTS_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException(PRODUCTS_RESOURCE + " not found on the classpath");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String tradesCsv(int rows, int productCount) {
+        return TradeFileGenerator.builder()
+                .rows(rows)
+                .productCount(productCount)
+                .build()
+                .generate();
+    }
+
+    static EnrichmentMetrics metrics() {
+        return new EnrichmentMetrics(new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.testtask.benchmark;
+
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link CsvParser} in rows per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvParserBenchmark {
+
+    private static final int TRADE_ROWS = 100_000;
+    private static final int PRODUCT_ROWS = 79_991;
+
+    private CsvParser csvParser;
+    private String tradesCsv;
+    private String productsCsv;
+    private String productLine;
+
+    @Setup
+    public void setUp() {
+        csvParser = new CsvParser(BenchmarkData.metrics());
+        tradesCsv = BenchmarkData.tradesCsv(TRADE_ROWS, PRODUCT_ROWS);
+        productsCsv = BenchmarkData.productsCsv();
+        productLine = "12345,Government Bonds Domestic";
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRADE_ROWS)
+    public void parseTrades(Blackhole blackhole) {
+        csvParser.parseTrades(new StringReader(tradesCsv))
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PRODUCT_ROWS)
+    public void parseProducts(Blackhole blackhole) {
+        csvParser.parseProducts(new StringReader(productsCsv))
+                .doOnNext(blackhole::consume)
+                .blockLast();
+    }
+
+    @Benchmark
+    public Product createProductFromLine() {
+        return csvParser.createProductFromLine(productLine);
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.testtask.benchmark;
+
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.cache.BlockingRedisExecutor;
+import org.example.testtask.infrastructure.cache.CacheConfiguration;
+import org.example.testtask.infrastructure.cache.ProductBuckets;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis memory and lookup latency of the two {@code cache.layout} options against a real Redis server.
+ * Connects to {@code -Dredis.host}/{@code -Dredis.port} and uses database {@code -Dredis.database}
+ * (15 by default), which is FLUSHED before and after each trial.
+ * <p>
+ * Setup prints {@code used_memory} per product. Each lookup goes through a fresh {@link RedisProductCache},
+ * so the local tier never answers and the score is the Redis round trip plus decoding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 10, time = 5)
+@Fork(2)
+public class ProductLayoutBenchmark {
+
+    private static final int BATCH = 100;
+    private static final int LOAD_CHUNK = 10_000;
+
+    @Param({"KEY_PER_PRODUCT", "BUCKETED"})
+    public CacheConfiguration.Layout layout;
+
+    @Param({"200000"})
+    public int products;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTemplate<String, Object> redisTemplate;
+    private CacheConfiguration config;
+    private BlockingRedisExecutor executor;
+    private ProductBuckets buckets;
+    private EnrichmentMetrics metrics;
+    private List<String> ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisStandaloneConfiguration server = new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379));
+        server.setDatabase(Integer.getInteger("redis.database", 15));
+        connectionFactory = new LettuceConnectionFactory(server);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        StringRedisTemplate stringTemplate = new StringRedisTemplate(connectionFactory);
+
+        config = new CacheConfiguration();
+        config.setExecutionMode(CacheConfiguration.ExecutionMode.CALLER);
+        config.setLayout(layout);
+        config.setExpectedProducts(products);
+        executor = new BlockingRedisExecutor(config);
+        buckets = new ProductBuckets(stringTemplate, config);
+        metrics = BenchmarkData.metrics();
+
+        flushDb();
+        long before = usedMemory();
+        ids = new ArrayList<>(products);
+        Map<String, Product> chunk = new HashMap<>();
+        RedisProductCache writer = newCache();
+        for (int i = 0; i < products; i++) {
+            String id = String.valueOf(i);
+            ids.add(id);
+            chunk.put(id, new Product(id, "Product " + i));
+            if (chunk.size() == LOAD_CHUNK || i == products - 1) {
+                writer.bulkCache(chunk);
+                chunk.clear();
+            }
+        }
+        long after = usedMemory();
+        // A lookup past the local tier must find every product, otherwise the scores would measure misses
+        int found = newCache().getProducts(ids.subList(0, BATCH)).size();
+        if (found != BATCH) {
+            throw new IllegalStateException(layout + " lookup found " + found + " of " + BATCH + " products");
+        }
+        System.out.printf("%n%s: %d products, used_memory +%,d bytes (%.1f bytes/product)%n",
+                layout, products, after - before, (after - before) / (double) products);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        flushDb();
+        executor.destroy();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public Optional<Product> getProduct() {
+        return newCache().getProduct(ids.get(advance(1)));
+    }
+
+    @Benchmark
+    public Map<String, Product> getProductsBatch() {
+        int from = advance(BATCH);
+        return newCache().getProducts(ids.subList(from, from + BATCH));
+    }
+
+    private RedisProductCache newCache() {
+        return new RedisProductCache(redisTemplate, config, metrics, executor, buckets);
+    }
+
+    private int advance(int count) {
+        int current = next;
+        next = current + 2 * count > products ? 0 : current + count;
+        return current;
+    }
+
+    private void flushDb() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushDb();
+            return null;
+        });
+    }
+
+    private long usedMemory() {
+        Properties info = redisTemplate.execute((RedisCallback<Properties>) connection ->
+                connection.serverCommands().info("memory"));
+        return Long.parseLong(info.getProperty("used_memory"));
+    }
+}
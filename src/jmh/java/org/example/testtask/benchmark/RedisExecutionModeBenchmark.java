@@ -0,0 +1,114 @@
+package org.example.testtask.benchmark;
+
+import org.example.testtask.infrastructure.cache.BlockingRedisExecutor;
+import org.example.testtask.infrastructure.cache.CacheConfiguration;
+import org.example.testtask.infrastructure.cache.ProductBuckets;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.support.InMemoryRedisTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Redis lookups that miss the local tier under high concurrency, issued from a small "event loop"
+ * pool the way Netty would. Each GET blocks for {@code redisLatencyMicros}, standing in for a network
+ * round trip. {@code CALLER} blocks the loop threads, {@code BOUNDED_ELASTIC} is capped at
+ * 10 × cores threads and {@code VIRTUAL_THREADS} parks a virtual thread per call.
+ * <p>
+ * Score is batches of {@code concurrency} lookups per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class RedisExecutionModeBenchmark {
+
+    private static final int EVENT_LOOP_THREADS = 4;
+
+    @Param({"CALLER", "BOUNDED_ELASTIC", "VIRTUAL_THREADS"})
+    public CacheConfiguration.ExecutionMode mode;
+
+    @Param({"256", "2048"})
+    public int concurrency;
+
+    @Param({"500"})
+    public long redisLatencyMicros;
+
+    private Scheduler eventLoop;
+    private BlockingRedisExecutor executor;
+    private RedisProductCache cache;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CacheConfiguration config = new CacheConfiguration();
+        config.setExecutionMode(mode);
+        config.setMaxRetries(0);
+        executor = new BlockingRedisExecutor(config);
+        eventLoop = Schedulers.newParallel("event-loop", EVENT_LOOP_THREADS);
+        cache = new RedisProductCache(new SlowRedisTemplate(redisLatencyMicros), config, BenchmarkData.metrics(), executor,
+                new ProductBuckets(new StringRedisTemplate(), config));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        eventLoop.dispose();
+        executor.destroy();
+    }
+
+    @Benchmark
+    public Long concurrentMisses() {
+        int base = next;
+        next += concurrency;
+        return Flux.range(base, concurrency)
+                .flatMap(i -> cache.getProductReactive("missing-" + i).subscribeOn(eventLoop), concurrency)
+                .count()
+                .block();
+    }
+
+    /**
+     * In-memory Redis stand-in whose value reads take a fixed amount of wall-clock time.
+     */
+    static final class SlowRedisTemplate extends InMemoryRedisTemplate {
+
+        private final long latencyNanos;
+
+        SlowRedisTemplate(long latencyMicros) {
+            this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public ValueOperations<String, Object> opsForValue() {
+            ValueOperations<String, Object> delegate = super.opsForValue();
+            return (ValueOperations<String, Object>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("get")) {
+                            LockSupport.parkNanos(latencyNanos);
+                        }
+                        return method.invoke(delegate, args);
+                    });
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.testtask.benchmark;
+
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.cache.BlockingRedisExecutor;
+import org.example.testtask.infrastructure.cache.CacheConfiguration;
+import org.example.testtask.infrastructure.cache.ProductBuckets;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.support.InMemoryRedisTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link RedisProductCache#getProduct(String)} for the local tier and for lookups
+ * that fall through to the (in-memory) Redis stand-in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisProductCacheBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    private RedisProductCache cache;
+    private String[] cachedIds;
+    private String[] missingIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        CacheConfiguration config = new CacheConfiguration();
+        config.setExecutionMode(CacheConfiguration.ExecutionMode.CALLER);
+        InMemoryRedisTemplate redis = new InMemoryRedisTemplate();
+        cache = new RedisProductCache(redis, config, BenchmarkData.metrics(), new BlockingRedisExecutor(config),
+                new ProductBuckets(redis.strings(), config));
+        Map<String, Product> products = new HashMap<>();
+        cachedIds = new String[PRODUCTS];
+        missingIds = new String[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            cachedIds[i] = String.valueOf(i);
+            missingIds[i] = String.valueOf(PRODUCTS + i);
+            products.put(cachedIds[i], new Product(cachedIds[i], "Product " + i));
+        }
+        cache.bulkCache(products);
+    }
+
+    @Benchmark
+    public Optional<Product> getProductLocalHit() {
+        return cache.getProduct(cachedIds[advance()]);
+    }
+
+    @Benchmark
+    public Optional<Product> getProductRedisMiss() {
+        return cache.getProduct(missingIds[advance()]);
+    }
+
+    private int advance() {
+        int current = next;
+        next = current + 1 == PRODUCTS ? 0 : current + 1;
+        return current;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.testtask.benchmark;
+
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.support.TestCatalogs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TradeService#enrichTradeWithProduct(Trade)} against the full bundled catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TradeServiceBenchmark {
+
+    private static final int TRADE_ROWS = 10_000;
+
+    private TradeService tradeService;
+    private Trade[] trades;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        CsvParser csvParser = new CsvParser(BenchmarkData.metrics());
+        List<Product> products = csvParser.parseProducts(new StringReader(BenchmarkData.productsCsv()))
+                .collectList()
+                .block();
+        tradeService = new TradeService(BenchmarkData.metrics(), TestCatalogs.inMemory(null));
+        tradeService.loadProducts(Flux.fromIterable(products)).block();
+        // Slightly more IDs than products, so a share of trades take the missing-product path
+        trades = csvParser.parseTrades(new StringReader(BenchmarkData.tradesCsv(TRADE_ROWS, products.size() + 1_000)))
+                .collectList()
+                .block()
+                .toArray(Trade[]::new);
+    }
+
+    @Benchmark
+    public Trade enrichTradeWithProduct() {
+        Trade trade = trades[next];
+        next = next + 1 == trades.length ? 0 : next + 1;
+        return tradeService.enrichTradeWithProduct(trade).block();
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.testtask.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.testtask.infrastructure.admission.AdaptiveConcurrencyLimiter;
+import org.example.testtask.infrastructure.admission.AdmissionConfiguration;
+import org.example.testtask.infrastructure.admission.MemoryBudget;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AdmissionConfig {
+
+    @Bean
+    public MemoryBudget memoryBudget(AdmissionConfiguration config, MeterRegistry registry) {
+        MemoryBudget budget = new MemoryBudget(config.resolveMemoryBudgetBytes());
+        Gauge.builder("admission.memory.reserved", budget, MemoryBudget::getReservedBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("admission.memory.budget", budget, MemoryBudget::getTotalBytes)
+                .baseUnit("bytes")
+                .register(registry);
+        return budget;
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter concurrencyLimiter(AdmissionConfiguration config, MeterRegistry registry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                config.getInitialLimit(),
+                config.getMinLimit(),
+                config.getMaxLimit(),
+                config.getQueueSize(),
+                config.getQueueTimeout(),
+                config.getLatencyTolerance());
+        Gauge.builder("admission.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .register(registry);
+        Gauge.builder("admission.concurrency.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(registry);
+        Gauge.builder("admission.concurrency.queued", limiter, AdaptiveConcurrencyLimiter::getQueued)
+                .register(registry);
+        return limiter;
+    }
+}
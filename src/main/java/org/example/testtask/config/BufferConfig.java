@@ -0,0 +1,20 @@
+package org.example.testtask.config;
+
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.infrastructure.buffer.SpillConfiguration;
+import org.example.testtask.infrastructure.buffer.SpillingBuffer;
+import org.example.testtask.infrastructure.buffer.TradeSpillCodec;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+public class BufferConfig {
+
+    @Bean
+    public SpillingBuffer<Trade> tradeSpillBuffer(TradeSpillCodec codec, SpillConfiguration config,
+                                                  EnrichmentMetrics metrics) {
+        return new SpillingBuffer<>(codec, config, Schedulers.boundedElastic(), metrics);
+    }
+}
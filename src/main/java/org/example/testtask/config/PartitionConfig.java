@@ -0,0 +1,34 @@
+package org.example.testtask.config;
+
+import org.example.testtask.domain.service.PartitionedEnrichmentService;
+import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.partition.HttpShardClient;
+import org.example.testtask.infrastructure.partition.PartitionConfiguration;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+import org.example.testtask.infrastructure.partition.ShardClient;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class PartitionConfig {
+
+    @Bean
+    public PartitionedEnrichmentService partitionedEnrichmentService(TradeService tradeService, PartitionRouter router,
+                                                                     PartitionConfiguration config,
+                                                                     WebClient.Builder webClientBuilder) {
+        Map<String, ShardClient> remoteShards = new HashMap<>();
+        if (config.isEnabled()) {
+            config.getNodes().forEach((node, baseUrl) -> {
+                if (!node.equals(router.getLocalNode())) {
+                    remoteShards.put(node, new HttpShardClient(webClientBuilder.clone().baseUrl(baseUrl).build(),
+                            config.getRequestTimeout()));
+                }
+            });
+        }
+        return new PartitionedEnrichmentService(tradeService, router, remoteShards, config.getBatchSize());
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.testtask.domain.model;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Асинхронне завдання збагачення, результат якого спулиться на локальний диск.
+ */
+@Getter
+public class EnrichmentJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public enum Mode {
+        /** Трейди розбираються, дедуплікуються і рахуються в агрегатах. */
+        ENRICH,
+        /** Рядки копіюються як є з дописаною назвою продукту, див. {@code TradeRowSplicer}. */
+        SPLICE
+    }
+
+    private final String id;
+    private final Path inputFile;
+    private final Path resultFile;
+    private final Path rejectFile;
+    private final Mode mode;
+    private final Instant submittedAt = Instant.now();
+    private final AtomicLong rowsProcessed = new AtomicLong();
+    private volatile long rowsRejected;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile TradeSummary summary;
+
+    public EnrichmentJob(String id, Path inputFile, Path resultFile, Path rejectFile) {
+        this(id, inputFile, resultFile, rejectFile, Mode.ENRICH);
+    }
+
+    public EnrichmentJob(String id, Path inputFile, Path resultFile, Path rejectFile, Mode mode) {
+        this.id = id;
+        this.inputFile = inputFile;
+        this.resultFile = resultFile;
+        this.rejectFile = rejectFile;
+        this.mode = mode;
+    }
+
+    public void started() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    public void rowProcessed() {
+        rowsProcessed.incrementAndGet();
+    }
+
+    public void completed(TradeSummary summary) {
+        this.summary = summary;
+        this.rowsRejected = summary.getRejects() == null ? 0 : summary.getRejects().getRows();
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    public void failed(String reason) {
+        finishedAt = Instant.now();
+        error = reason;
+        status = Status.FAILED;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public JobStatus toStatus() {
+        long rows = rowsProcessed.get();
+        return JobStatus.builder()
+                .id(id)
+                .status(status)
+                .mode(mode)
+                .rowsProcessed(rows)
+                .rowsRejected(rowsRejected)
+                .rowsPerSecond(rowsPerSecond(rows))
+                .submittedAt(submittedAt)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .error(error)
+                .build();
+    }
+
+    private double rowsPerSecond(long rows) {
+        Instant start = startedAt;
+        if (start == null || rows == 0) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return rows * 1000.0 / millis;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.testtask.domain.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Результат фільтра рядків одного файлу: скільки рядків переглянуто, скільки відсіяно фільтром
+ * і скільки трейдів віддано далі. Різниця між {@code scanned - skipped} і {@code emitted} — це брак.
+ */
+@Value
+@Builder
+public class FilterReport {
+    long scanned;
+    long skipped;
+    long emitted;
+}
@@ -0,0 +1,21 @@
+package org.example.testtask.domain.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Агрегати ціни для однієї групи трейдів (продукт, валюта або дата).
+ */
+@Value
+@Builder
+public class GroupAggregate {
+    String key;
+    String productName;
+    long count;
+    BigDecimal total;
+    BigDecimal min;
+    BigDecimal max;
+    BigDecimal average;
+}
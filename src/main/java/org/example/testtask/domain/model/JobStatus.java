@@ -0,0 +1,21 @@
+package org.example.testtask.domain.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+@Builder
+public class JobStatus {
+    String id;
+    EnrichmentJob.Status status;
+    EnrichmentJob.Mode mode;
+    long rowsProcessed;
+    long rowsRejected;
+    double rowsPerSecond;
+    Instant submittedAt;
+    Instant startedAt;
+    Instant finishedAt;
+    String error;
+}
@@ -0,0 +1,13 @@
+package org.example.testtask.domain.model;
+
+/**
+ * Код причини, з якої рядок CSV не прийнято.
+ */
+public enum RejectReason {
+    MISSING_FIELDS,
+    EMPTY_PRODUCT_ID,
+    EMPTY_PRODUCT_NAME,
+    INVALID_DATE,
+    INVALID_PRICE,
+    MALFORMED_ROW
+}
@@ -0,0 +1,18 @@
+package org.example.testtask.domain.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Відхилені рядки одного файлу: кількість за причинами і перші кілька рядків як приклад.
+ */
+@Value
+@Builder
+public class RejectReport {
+    long rows;
+    Map<RejectReason, Long> byReason;
+    List<RejectedRow> samples;
+}
@@ -0,0 +1,10 @@
+package org.example.testtask.domain.model;
+
+import lombok.Value;
+
+@Value
+public class RejectedRow {
+    long line;
+    RejectReason reason;
+    String row;
+}
@@ -0,0 +1,26 @@
+package org.example.testtask.domain.model;
+
+import lombok.Builder;
+import lombok.Value;
+import lombok.With;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Підсумок збагачення, порахований за той самий прохід, що й самі рядки.
+ */
+@Value
+@Builder
+public class TradeSummary {
+    long trades;
+    long missingProducts;
+    BigDecimal totalPrice;
+    List<GroupAggregate> byProduct;
+    List<GroupAggregate> byCurrency;
+    List<GroupAggregate> byDate;
+    @With
+    RejectReport rejects;
+    @With
+    FilterReport filter;
+}
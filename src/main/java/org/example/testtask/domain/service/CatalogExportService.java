@@ -0,0 +1,109 @@
+package org.example.testtask.domain.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.catalog.CatalogConfiguration;
+import org.example.testtask.infrastructure.catalog.ProductCatalog;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Потоковий експорт каталогу продуктів для аудиту й міграцій.
+ * Продукти читаються ліниво (з локального знімка або курсором {@code HSCAN} з Redis) і склеюються
+ * в чанки по {@code export-batch-size} рядків, тож пам'ять не залежить від розміру каталогу,
+ * а повільний клієнт через backpressure просто пригальмовує обхід.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogExportService {
+
+    public static final String CSV_HEADER = "productId,productName";
+
+    private static final ObjectWriter PRODUCT_WRITER = new ObjectMapper().writerFor(Product.class);
+
+    public enum Source {
+        /** Локальний знімок, якщо він повний і непорожній, інакше Redis. */
+        AUTO,
+        LOCAL,
+        REDIS
+    }
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private final ProductCatalogService catalogService;
+    private final RedisProductCache redisProductCache;
+    private final PartitionRouter partitionRouter;
+    private final CatalogConfiguration catalogConfig;
+
+    /**
+     * Чанки тексту у форматі {@code format}; CSV починається з рядка заголовка, як у файлі для завантаження.
+     */
+    public Flux<String> export(Source source, Format format) {
+        int batchSize = Math.max(1, catalogConfig.getExportBatchSize());
+        Flux<String> chunks = products(source)
+                .buffer(batchSize)
+                .map(batch -> format == Format.CSV ? toCsv(batch) : toNdjson(batch));
+        return format == Format.CSV ? Flux.concat(Flux.just(CSV_HEADER + "\n"), chunks) : chunks;
+    }
+
+    public Flux<Product> products(Source source) {
+        return Flux.defer(() -> {
+            ProductCatalog catalog = catalogService.current();
+            if (resolve(source, catalog) == Source.LOCAL) {
+                log.info("Exporting {} products from local catalog v{}", catalog.size(), catalog.getVersion());
+                return Flux.fromIterable(catalog::iterator);
+            }
+            log.info("Exporting products from Redis");
+            return redisProductCache.scanProducts(Math.max(1, catalogConfig.getExportBatchSize()));
+        });
+    }
+
+    private Source resolve(Source source, ProductCatalog catalog) {
+        if (source != Source.AUTO) {
+            return source;
+        }
+        // Вузол у партиційованому режимі тримає лише свій шард, тож повний каталог є тільки в Redis
+        return catalog.size() > 0 && !partitionRouter.isEnabled() ? Source.LOCAL : Source.REDIS;
+    }
+
+    private static String toCsv(List<Product> batch) {
+        StringBuilder chunk = new StringBuilder(batch.size() * 32);
+        // Назва з комою чи лапками береться в лапки, як у вихідному CSV трейдів, — завантаження читає її назад
+        for (Product product : batch) {
+            chunk.append(quote(product.getProductId())).append(',').append(quote(product.getProductName())).append('\n');
+        }
+        return chunk.toString();
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String toNdjson(List<Product> batch) {
+        StringBuilder chunk = new StringBuilder(batch.size() * 48);
+        try {
+            for (Product product : batch) {
+                chunk.append(PRODUCT_WRITER.writeValueAsString(product)).append('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunk.toString();
+    }
+}
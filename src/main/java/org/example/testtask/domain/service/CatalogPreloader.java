@@ -0,0 +1,202 @@
+package org.example.testtask.domain.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.catalog.CatalogConfiguration;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Прогріває каталог продуктів при старті: знімок з диска, CSV-файл (розбирається паралельними чанками)
+ * та звірка версії з Redis. Поки прогрів не завершено, readiness-проба тримається в OUT_OF_SERVICE.
+ */
+@Slf4j
+@Service
+public class CatalogPreloader {
+
+    public enum State {
+        PENDING,
+        LOADING,
+        READY,
+        FAILED
+    }
+
+    private final ProductCatalogService catalogService;
+    private final CsvParser csvParser;
+    private final CatalogConfiguration catalogConfig;
+    private final ResourceLoader resourceLoader;
+
+    private final AtomicLong loadMillis = new AtomicLong();
+    private volatile State state = State.PENDING;
+    private volatile String source = "none";
+    private volatile String failure;
+
+    public CatalogPreloader(ProductCatalogService catalogService, CsvParser csvParser,
+                            CatalogConfiguration catalogConfig, ResourceLoader resourceLoader,
+                            MeterRegistry registry) {
+        this.catalogService = catalogService;
+        this.csvParser = csvParser;
+        this.catalogConfig = catalogConfig;
+        this.resourceLoader = resourceLoader;
+        TimeGauge.builder("catalog.preload.duration", loadMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time taken to warm the product catalog at startup")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void preloadAfterStartup() {
+        Mono.fromRunnable(this::preload)
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+    }
+
+    /**
+     * Виконує прогрів синхронно; помилки не пробрасуються, а відображаються в стані.
+     */
+    public void preload() {
+        state = State.LOADING;
+        long start = System.nanoTime();
+        List<String> sources = new ArrayList<>();
+        String error = null;
+        boolean fromFile = false;
+        try {
+            if (catalogService.current().size() > 0) {
+                sources.add("snapshot");
+            } else if (catalogConfig.getPreload().getSource() == CatalogConfiguration.PreloadSource.FILE) {
+                List<Product> products = loadFile(catalogConfig.getPreload().getFile());
+                catalogService.replace(products);
+                sources.add("file");
+                fromFile = true;
+            }
+        } catch (Exception e) {
+            error = "File preload failed: " + e.getMessage();
+            log.error("Catalog preload from {} failed", catalogConfig.getPreload().getFile(), e);
+        }
+        if (catalogConfig.isVerifyOnStartup()
+                || catalogConfig.getPreload().getSource() == CatalogConfiguration.PreloadSource.REDIS) {
+            try {
+                if (fromFile) {
+                    // Файл — джерело каталогу: звірка лише ставить на нього версію з Redis, а не перечитує хеш
+                    catalogService.stampRemoteVersion();
+                } else if (catalogService.refreshIfStale()) {
+                    sources.add("redis");
+                }
+            } catch (Exception e) {
+                error = error == null ? "Redis verification failed: " + e.getMessage() : error;
+                log.warn("Could not verify catalog version against Redis: {}", e.getMessage());
+            }
+        }
+
+        loadMillis.set(Duration.ofNanos(System.nanoTime() - start).toMillis());
+        source = sources.isEmpty() ? "none" : String.join("+", sources);
+        failure = error;
+        // Без помилок навіть порожній каталог — легітимний стан; з помилкою готові лише з даними
+        state = error == null || catalogService.current().size() > 0 ? State.READY : State.FAILED;
+        log.info("Catalog preload {} in {} ms: {} products from {}",
+                state, loadMillis.get(), catalogService.current().size(), source);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis.get();
+    }
+
+    /**
+     * Ділить файл на чанки по межах рядків і розбирає їх паралельно.
+     */
+    List<Product> loadFile(String location) throws IOException {
+        Resource resource = resourceLoader.getResource(location);
+        byte[] content;
+        try (InputStream input = resource.getInputStream()) {
+            content = input.readAllBytes();
+        }
+        int firstRow = indexAfterNewline(content, 0); // пропускаємо заголовок
+        List<int[]> chunks = splitIntoChunks(content, firstRow, Math.max(1, catalogConfig.getPreload().getChunkBytes()));
+
+        // flatMapSequential зберігає порядок чанків, тож дублікати ID вирішуються так само, як у файлі
+        return Flux.fromIterable(chunks)
+                .flatMapSequential(chunk -> Mono.fromCallable(() -> parseChunk(content, chunk[0], chunk[1]))
+                                .subscribeOn(Schedulers.parallel()),
+                        Math.max(1, catalogConfig.getPreload().getParallelism()))
+                .collectList()
+                .map(parts -> {
+                    List<Product> products = new ArrayList<>();
+                    parts.forEach(products::addAll);
+                    return products;
+                })
+                .block();
+    }
+
+    private List<Product> parseChunk(byte[] content, int from, int to) {
+        List<Product> products = new ArrayList<>();
+        String text = new String(content, from, to - from, StandardCharsets.UTF_8);
+        int lineStart = 0;
+        while (lineStart < text.length()) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            String line = text.substring(lineStart, lineEnd).strip();
+            if (!line.isEmpty()) {
+                Product product = csvParser.createProductFromLine(line);
+                if (product != null) {
+                    products.add(product);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return products;
+    }
+
+    private static List<int[]> splitIntoChunks(byte[] content, int from, int chunkBytes) {
+        List<int[]> chunks = new ArrayList<>();
+        int start = from;
+        while (start < content.length) {
+            int end = Math.min(content.length, start + chunkBytes);
+            if (end < content.length) {
+                end = indexAfterNewline(content, end);
+            }
+            chunks.add(new int[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static int indexAfterNewline(byte[] content, int from) {
+        for (int i = from; i < content.length; i++) {
+            if (content[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return content.length;
+    }
+}
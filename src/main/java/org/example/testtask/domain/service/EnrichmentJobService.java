@@ -0,0 +1,273 @@
+package org.example.testtask.domain.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.EnrichmentJob;
+import org.example.testtask.domain.model.TradeSummary;
+import org.example.testtask.infrastructure.job.JobConfiguration;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.infrastructure.parser.RejectLog;
+import org.example.testtask.infrastructure.parser.TradeCsvFormatter;
+import org.example.testtask.infrastructure.parser.TradeRowSplicer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Виконує збагачення великих файлів у фоні: вхідний файл і результат спуляться на диск,
+ * а завдання виконуються обмеженим пулом воркерів.
+ */
+@Slf4j
+@Service
+public class EnrichmentJobService {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final CsvParser csvParser;
+    private final PartitionedEnrichmentService partitionedEnrichment;
+    private final TradeDeduplicator tradeDeduplicator;
+    private final TradeCsvFormatter csvFormatter;
+    private final TradeRowSplicer rowSplicer;
+    private final TradeService tradeService;
+    private final JobConfiguration jobConfig;
+
+    private final Map<String, EnrichmentJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingJobs = new AtomicInteger();
+    private final ThreadPoolExecutor executor;
+
+    public EnrichmentJobService(CsvParser csvParser, PartitionedEnrichmentService partitionedEnrichment,
+                                TradeDeduplicator tradeDeduplicator, TradeCsvFormatter csvFormatter,
+                                TradeRowSplicer rowSplicer, TradeService tradeService, JobConfiguration jobConfig) {
+        this.csvParser = csvParser;
+        this.partitionedEnrichment = partitionedEnrichment;
+        this.tradeDeduplicator = tradeDeduplicator;
+        this.csvFormatter = csvFormatter;
+        this.rowSplicer = rowSplicer;
+        this.tradeService = tradeService;
+        this.jobConfig = jobConfig;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                jobConfig.getWorkers(), jobConfig.getWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, jobConfig.getQueueCapacity())),
+                runnable -> new Thread(runnable, "enrichment-job-" + threadNumber.incrementAndGet()));
+    }
+
+    public Mono<EnrichmentJob> submit(Flux<DataBuffer> csvData) {
+        return submit(csvData, EnrichmentJob.Mode.ENRICH);
+    }
+
+    /**
+     * Спулить вхідні дані на диск і ставить завдання в чергу.
+     * Слот у черзі резервується лише при підписці, тож непідписаний {@code Mono} його не тримає.
+     */
+    public Mono<EnrichmentJob> submit(Flux<DataBuffer> csvData, EnrichmentJob.Mode mode) {
+        return Mono.defer(() -> {
+            if (mode == EnrichmentJob.Mode.SPLICE && partitionedEnrichment.isPartitioned()) {
+                // Splice бачить лише локальний каталог, а у партиційованому режимі це тільки шард вузла
+                return Mono.error(new UnsupportedJobModeException("Splice mode is not supported with partitioning"));
+            }
+            purgeExpiredJobs();
+            if (!reserveSlot()) {
+                return Mono.error(new JobRejectedException("Enrichment job queue is full"));
+            }
+
+            String jobId = UUID.randomUUID().toString();
+            Path inputFile = jobConfig.getSpoolDir().resolve(jobId + ".in.csv");
+            AtomicBoolean queued = new AtomicBoolean();
+            return Mono.fromCallable(() -> {
+                        Files.createDirectories(jobConfig.getSpoolDir());
+                        return new EnrichmentJob(jobId, inputFile, jobConfig.getSpoolDir().resolve(jobId + ".out.csv"),
+                                jobConfig.getSpoolDir().resolve(jobId + ".rejects.csv"), mode);
+                    })
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .flatMap(job -> DataBufferUtils.write(csvData, job.getInputFile())
+                            .then(Mono.fromCallable(() -> {
+                                jobs.put(job.getId(), job);
+                                try {
+                                    executor.execute(() -> run(job));
+                                } catch (RejectedExecutionException e) {
+                                    // Пул зупинено або воркер ще не забрав наступне завдання з повної черги
+                                    jobs.remove(job.getId());
+                                    throw new JobRejectedException("Enrichment job queue is full");
+                                }
+                                queued.set(true);
+                                log.info("Enrichment job {} queued", job.getId());
+                                return job;
+                            })))
+                    .doOnError(e -> log.error("Failed to submit enrichment job {}: {}", jobId, e.getMessage()))
+                    .doFinally(signal -> {
+                        // Завантаження обірвалося або впало до постановки в чергу: звільняємо слот і файл
+                        if (!queued.get()) {
+                            deleteQuietly(inputFile);
+                            pendingJobs.decrementAndGet();
+                        }
+                    });
+        });
+    }
+
+    public Optional<EnrichmentJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    /**
+     * Потоково читає результат завершеного завдання з диска.
+     */
+    public Flux<DataBuffer> readResult(EnrichmentJob job) {
+        return DataBufferUtils.read(job.getResultFile(), DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE);
+    }
+
+    /**
+     * Потоково читає відхилені рядки завершеного завдання ({@code line,reason,row}).
+     */
+    public Flux<DataBuffer> readRejects(EnrichmentJob job) {
+        return DataBufferUtils.read(job.getRejectFile(), DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE);
+    }
+
+    public boolean deleteJob(String jobId) {
+        EnrichmentJob job = jobs.get(jobId);
+        if (job == null || !job.isFinished()) {
+            return false;
+        }
+        jobs.remove(jobId);
+        deleteQuietly(job.getResultFile());
+        deleteQuietly(job.getRejectFile());
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(EnrichmentJob job) {
+        job.started();
+        try {
+            if (job.getMode() == EnrichmentJob.Mode.SPLICE) {
+                splice(job);
+            } else {
+                enrich(job);
+            }
+        } catch (Exception e) {
+            job.failed(e.getMessage());
+            deleteQuietly(job.getResultFile());
+            deleteQuietly(job.getRejectFile());
+            log.error("Enrichment job {} failed: {}", job.getId(), e.getMessage());
+        } finally {
+            deleteQuietly(job.getInputFile());
+            pendingJobs.decrementAndGet();
+        }
+    }
+
+    private void enrich(EnrichmentJob job) throws IOException {
+        try (Reader reader = Files.newBufferedReader(job.getInputFile(), StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(job.getResultFile(), StandardCharsets.UTF_8);
+             RejectLog rejects = RejectLog.toFile("trade", job.getRejectFile())) {
+            csvFormatter.writeHeader(writer);
+            // Агрегати рахуються за той самий прохід, щоб не перечитувати результат
+            TradeAggregator aggregator = new TradeAggregator();
+            partitionedEnrichment.enrich(tradeDeduplicator.deduplicate(csvParser.parseTrades(reader, rejects)))
+                    .doOnNext(trade -> {
+                        try {
+                            csvFormatter.write(trade, writer);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        aggregator.add(trade);
+                        job.rowProcessed();
+                    })
+                    .blockLast();
+            job.completed(aggregator.toSummary().withRejects(rejects.toReport()));
+            log.info("Enrichment job {} completed: {} rows", job.getId(), job.getRowsProcessed().get());
+        }
+    }
+
+    /**
+     * Режим splice: рядки копіюються байтами з дописаною назвою продукту, без розбору, дедуплікації й агрегатів.
+     */
+    private void splice(EnrichmentJob job) throws IOException {
+        try (InputStream in = Files.newInputStream(job.getInputFile());
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(job.getResultFile()), WRITE_BUFFER_SIZE);
+             RejectLog rejects = RejectLog.toFile("trade", job.getRejectFile())) {
+            long[] missing = {0};
+            long rows = rowSplicer.splice(in, out, productId -> {
+                String productName = tradeService.resolveProductName(productId);
+                if (TradeService.MISSING_PRODUCT_NAME.equals(productName)) {
+                    missing[0]++;
+                }
+                job.rowProcessed();
+                return productName;
+            }, rejects);
+            job.completed(TradeSummary.builder()
+                    .trades(rows)
+                    .missingProducts(missing[0])
+                    .byProduct(List.of())
+                    .byCurrency(List.of())
+                    .byDate(List.of())
+                    .rejects(rejects.toReport())
+                    .build());
+            log.info("Enrichment job {} completed in splice mode: {} rows", job.getId(), rows);
+        }
+    }
+
+    private boolean reserveSlot() {
+        int capacity = jobConfig.getWorkers() + jobConfig.getQueueCapacity();
+        while (true) {
+            int pending = pendingJobs.get();
+            if (pending >= capacity) {
+                return false;
+            }
+            if (pendingJobs.compareAndSet(pending, pending + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void purgeExpiredJobs() {
+        Instant expiry = Instant.now().minus(jobConfig.getRetention());
+        jobs.values().removeIf(job -> {
+            boolean expired = job.isFinished() && job.getFinishedAt().isBefore(expiry);
+            if (expired) {
+                deleteQuietly(job.getResultFile());
+                deleteQuietly(job.getRejectFile());
+            }
+            return expired;
+        });
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete spool file {}: {}", file, e.getMessage());
+        }
+    }
+}
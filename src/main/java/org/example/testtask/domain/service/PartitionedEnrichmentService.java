@@ -0,0 +1,97 @@
+package org.example.testtask.domain.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+import org.example.testtask.infrastructure.partition.ShardClient;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Координатор партиційованого збагачення: ділить потік трейдів за консистентним хешем productId,
+ * віддає кожну частину вузлу-власнику шарду каталогу і зливає результати назад у вихідному порядку.
+ * Без партиціювання просто збагачує трейди локально.
+ */
+@Slf4j
+public class PartitionedEnrichmentService {
+
+    private final TradeService tradeService;
+    private final PartitionRouter router;
+    private final Map<String, ShardClient> remoteShards;
+    private final int batchSize;
+
+    public PartitionedEnrichmentService(TradeService tradeService, PartitionRouter router,
+                                        Map<String, ShardClient> remoteShards, int batchSize) {
+        this.tradeService = tradeService;
+        this.router = router;
+        this.remoteShards = Map.copyOf(remoteShards);
+        this.batchSize = Math.max(1, batchSize);
+        if (router.isEnabled()) {
+            router.getNodes().stream()
+                    .filter(node -> !node.equals(router.getLocalNode()) && !this.remoteShards.containsKey(node))
+                    .findAny()
+                    .ifPresent(node -> {
+                        throw new IllegalStateException("No shard client for partition node " + node);
+                    });
+        }
+    }
+
+    /**
+     * Чи розподілений каталог між вузлами: тоді локальний каталог містить лише шард цього вузла.
+     */
+    public boolean isPartitioned() {
+        return router.isEnabled();
+    }
+
+    public Flux<Trade> enrich(Flux<Trade> trades) {
+        if (!router.isEnabled()) {
+            return enrichLocal(trades);
+        }
+        // Пакети обробляються по черзі, тож порядок зберігається і між пакетами
+        return trades.buffer(batchSize).concatMap(this::enrichBatch);
+    }
+
+    /**
+     * Збагачує трейди шардом цього вузла, зберігаючи порядок.
+     */
+    public Flux<Trade> enrichLocal(Flux<Trade> trades) {
+        return trades.concatMap(tradeService::enrichTradeWithProduct);
+    }
+
+    private Flux<Trade> enrichBatch(List<Trade> batch) {
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            positions.computeIfAbsent(router.nodeFor(batch.get(i).getProductId()), node -> new ArrayList<>()).add(i);
+        }
+        Trade[] enriched = new Trade[batch.size()];
+        return Flux.fromIterable(positions.entrySet())
+                .flatMap(shard -> {
+                    List<Integer> indexes = shard.getValue();
+                    List<Trade> part = new ArrayList<>(indexes.size());
+                    indexes.forEach(index -> part.add(batch.get(index)));
+                    return shardClient(shard.getKey()).enrich(part)
+                            .collectList()
+                            .doOnNext(result -> {
+                                if (result.size() != part.size()) {
+                                    throw new IllegalStateException("Partition node " + shard.getKey() + " returned "
+                                            + result.size() + " trades for " + part.size());
+                                }
+                                for (int i = 0; i < result.size(); i++) {
+                                    enriched[indexes.get(i)] = result.get(i);
+                                }
+                            });
+                })
+                .thenMany(Flux.defer(() -> Flux.fromArray(enriched)));
+    }
+
+    private ShardClient shardClient(String node) {
+        if (node.equals(router.getLocalNode())) {
+            return part -> enrichLocal(Flux.fromIterable(part));
+        }
+        return remoteShards.get(node);
+    }
+}
@@ -0,0 +1,138 @@
+package org.example.testtask.domain.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.catalog.CatalogSnapshotStore;
+import org.example.testtask.infrastructure.catalog.ProductCatalog;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Тримає поточний знімок каталогу продуктів для збагачення.
+ * При старті піднімає знімок з диска; прогрів і звірку з Redis виконує {@link CatalogPreloader}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductCatalogService {
+
+    private final RedisProductCache redisProductCache;
+    private final CatalogSnapshotStore snapshotStore;
+    private final PartitionRouter partitionRouter;
+
+    private volatile ProductCatalog catalog = ProductCatalog.empty();
+
+    @PostConstruct
+    public void loadSnapshot() {
+        long start = System.nanoTime();
+        snapshotStore.load().ifPresent(snapshot -> {
+            catalog = snapshot;
+            log.info("Loaded catalog snapshot v{} with {} products in {} ms",
+                    snapshot.getVersion(), snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    public ProductCatalog current() {
+        return catalog;
+    }
+
+    public String findProductName(String productId) {
+        return catalog.findProductName(productId);
+    }
+
+    public Optional<Product> findProduct(String productId) {
+        return catalog.findProduct(productId);
+    }
+
+    /**
+     * Перебудовує каталог з Redis, якщо версія там відрізняється від локального знімка.
+     * Порожній каталог вважається застарілим і тоді, коли ключа версії в Redis немає, а продукти там є.
+     *
+     * @return {@code true}, якщо каталог перечитано з Redis
+     */
+    public synchronized boolean refreshIfStale() {
+        long remoteVersion = redisProductCache.getCatalogVersion();
+        boolean stale = remoteVersion != catalog.getVersion()
+                || remoteVersion == 0 && catalog.size() == 0 && redisProductCache.hasProducts();
+        if (!stale) {
+            log.info("Catalog snapshot v{} is up to date", remoteVersion);
+            return false;
+        }
+        log.info("Catalog snapshot v{} is stale (Redis has v{}), reloading", catalog.getVersion(), remoteVersion);
+        install(build(remoteVersion, redisProductCache.loadAllProducts().values()));
+        return true;
+    }
+
+    /**
+     * Повністю замінює локальний каталог без зміни версії в Redis.
+     */
+    public synchronized void replace(Collection<Product> products) {
+        install(build(catalog.getVersion(), products));
+    }
+
+    /**
+     * Позначає локальний каталог поточною версією з Redis, не змінюючи вмісту: так каталог, засіяний з файлу,
+     * не вважається застарілим і не підміняється вмістом Redis при звірці.
+     */
+    public synchronized void stampRemoteVersion() {
+        long remoteVersion = redisProductCache.getCatalogVersion();
+        if (remoteVersion != catalog.getVersion()) {
+            log.info("Stamping catalog v{} with Redis version v{}", catalog.getVersion(), remoteVersion);
+            install(build(remoteVersion, withProducts(List.of())));
+        }
+    }
+
+    /**
+     * Додає завантажені продукти (вже записані в Redis) і публікує нову версію каталогу.
+     */
+    public synchronized void merge(Collection<Product> products) {
+        long version = redisProductCache.incrementCatalogVersion();
+        if (version != catalog.getVersion() + 1) {
+            // Між нашими оновленнями каталог змінював інший вузол: беремо повний стан з Redis
+            install(build(version, redisProductCache.loadAllProducts().values()));
+            return;
+        }
+        install(build(version, withProducts(products)));
+    }
+
+    /**
+     * Додає продукти лише в локальний каталог, не чіпаючи Redis: у режимі write-behind
+     * версію каталогу в Redis піднімає фонова черга, коли продукти вже записані.
+     */
+    public synchronized void mergeLocal(Collection<Product> products) {
+        install(build(catalog.getVersion(), withProducts(products)));
+    }
+
+    private Collection<Product> withProducts(Collection<Product> products) {
+        Map<String, Product> merged = new LinkedHashMap<>();
+        catalog.forEach(product -> merged.put(product.getProductId(), product));
+        products.forEach(product -> merged.put(product.getProductId(), product));
+        return merged.values();
+    }
+
+    /**
+     * У партиційованому режимі вузол тримає лише свій шард каталогу.
+     */
+    private ProductCatalog build(long version, Collection<Product> products) {
+        if (!partitionRouter.isEnabled()) {
+            return ProductCatalog.build(version, products);
+        }
+        List<Product> shard = products.stream().filter(product -> partitionRouter.owns(product.getProductId())).toList();
+        log.info("Catalog shard of node {}: {} of {} products", partitionRouter.getLocalNode(), shard.size(), products.size());
+        return ProductCatalog.build(version, shard);
+    }
+
+    private void install(ProductCatalog next) {
+        catalog = next;
+        snapshotStore.save(next);
+    }
+}
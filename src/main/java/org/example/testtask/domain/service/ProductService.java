@@ -3,56 +3,141 @@ package org.example.testtask.domain.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.cache.ProductWriteBehindQueue;
 import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.catalog.ProductCatalog;
+import org.example.testtask.infrastructure.jfr.ProductLookupEvent;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ProductService {
 
+    /**
+     * Скільки ID, не знайдених у каталозі, резолвиться одним {@code MGET}.
+     */
+    static final int LOOKUP_BATCH_SIZE = 500;
+
     private final RedisProductCache redisProductCache;
+    private final ProductCatalogService catalogService;
+    private final EnrichmentMetrics metrics;
+    private final ProductWriteBehindQueue writeBehindQueue;
 
     /**
-     * Завантажує продукти за списком ID з Redis.
+     * Завантажує продукти за списком ID пакетами: спершу з локального каталогу,
+     * решту — одним multi-get на пакет. Порядок результатів збігається з порядком ID.
      */
     public Flux<Product> getProductsByIds(Flux<String> productIds) {
-        return productIds.flatMap(this::getProductById)
-                .doOnNext(product -> log.info("Product loaded: {}", product.getProductName()));
+        return productIds.buffer(LOOKUP_BATCH_SIZE)
+                .concatMap(this::getProductBatch)
+                .doOnNext(product -> log.debug("Product loaded: {}", product.getProductName()));
+    }
+
+    private Flux<Product> getProductBatch(List<String> productIds) {
+        Map<String, Product> fromCatalog = new HashMap<>(productIds.size() * 2);
+        List<String> remoteIds = new ArrayList<>();
+        for (String productId : productIds) {
+            catalogService.findProduct(productId).ifPresentOrElse(
+                    product -> fromCatalog.put(productId, product),
+                    () -> remoteIds.add(productId));
+        }
+        Mono<Map<String, Product>> fromCache = remoteIds.isEmpty()
+                ? Mono.just(Map.of())
+                : redisProductCache.getProductsReactive(remoteIds).defaultIfEmpty(Map.of());
+        return fromCache.flatMapIterable(cached -> productIds.stream()
+                .map(productId -> {
+                    Product product = fromCatalog.getOrDefault(productId, cached.get(productId));
+                    metrics.productLookup(product != null);
+                    if (product == null) {
+                        log.debug("Product not found for ID: {}", productId);
+                        return new Product(productId, TradeService.MISSING_PRODUCT_NAME);
+                    }
+                    return product;
+                })
+                .toList());
     }
 
     /**
-     * Завантажує один продукт за його ID з Redis.
+     * Завантажує один продукт за його ID: спершу з локального каталогу, потім з Redis.
      */
     public Mono<Product> getProductById(String productId) {
-        return Mono.justOrEmpty(redisProductCache.getProduct(productId))
-                .switchIfEmpty(Mono.defer(() -> loadProductFromCacheOrFallback(productId)))
-                .doOnNext(product -> {
-                    if ("Missing Product Name".equals(product.getProductName())) {
-                        log.warn("Product not found for ID: {}", productId);
-                    }
-                });
+        // Подія починається з підпискою і фіксується на будь-якому завершенні, зокрема на помилці чи скасуванні
+        return Mono.defer(() -> {
+            ProductLookupEvent event = new ProductLookupEvent();
+            event.begin();
+            event.productId = productId;
+            Optional<Product> fromCatalog = catalogService.findProduct(productId);
+            String hitTier = fromCatalog.isPresent() ? ProductLookupEvent.TIER_CATALOG
+                    : event.isEnabled() && redisProductCache.isCachedLocally(productId) ? ProductLookupEvent.TIER_LOCAL
+                    : ProductLookupEvent.TIER_REDIS;
+            return (fromCatalog.isPresent() ? Mono.just(fromCatalog.get()) : redisProductCache.getProductReactive(productId))
+                    .switchIfEmpty(Mono.fromSupplier(() -> new Product(productId, TradeService.MISSING_PRODUCT_NAME)))
+                    .doOnNext(product -> {
+                        boolean missing = TradeService.MISSING_PRODUCT_NAME.equals(product.getProductName());
+                        metrics.productLookup(!missing);
+                        if (missing) {
+                            log.debug("Product not found for ID: {}", productId);
+                        }
+                        event.tier = missing ? ProductLookupEvent.TIER_MISSING : hitTier;
+                    })
+                    .doFinally(signal -> {
+                        if (event.tier == null) {
+                            event.tier = signal == SignalType.ON_ERROR
+                                    ? ProductLookupEvent.TIER_FAILED : ProductLookupEvent.TIER_CANCELLED;
+                        }
+                        if (event.shouldCommit()) {
+                            event.commit();
+                        }
+                    });
+        });
     }
 
     /**
-     * Завантажує продукт з кешу.
+     * Мітка версії каталогу, з якого резолвиться продукт; перевірка лише в пам'яті, без Redis.
+     *
+     * @return порожньо, якщо продукту немає в каталозі і відповідь залежить від Redis
      */
-    private Mono<Product> loadProductFromCacheOrFallback(String productId) {
-        Product fallbackProduct = new Product(productId, "Missing Product Name");
-        return Mono.justOrEmpty(redisProductCache.getProduct(productId))
-                .switchIfEmpty(Mono.just(fallbackProduct));
+    public Optional<String> catalogTag(String productId) {
+        ProductCatalog catalog = catalogService.current();
+        if (catalog.findProductName(productId) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(catalog.getVersion() + "-" + Integer.toHexString(catalog.getChecksum()));
     }
 
+    /**
+     * Завантажує продукти в каталог і Redis. У режимі write-behind підтверджує завантаження одразу
+     * після оновлення локального каталогу, а в Redis продукти дописує {@link ProductWriteBehindQueue}.
+     */
     public Mono<Void> loadProducts(Flux<Product> products) {
-        return products
-                .doOnNext(product -> log.info("Processing product: {}", product.getProductName()))
-                .map(product -> {
-                    redisProductCache.saveProduct(product);
-                    return product;
-                })
-                .doOnComplete(() -> log.info("All products have been loaded into cache"))
+        if (writeBehindQueue.isEnabled()) {
+            return products
+                    .doOnNext(product -> log.debug("Processing product: {}", product.getProductName()))
+                    .collectList()
+                    .flatMap(loaded -> {
+                        catalogService.mergeLocal(loaded);
+                        return writeBehindQueue.enqueue(loaded);
+                    })
+                    .doOnSuccess(sequence -> log.info("Products applied to catalog, queued for Redis up to #{}", sequence))
+                    .doOnError(error -> log.error("Error loading products: {}", error.getMessage()))
+                    .then();
+        }
+        return redisProductCache.saveProducts(products
+                        .doOnNext(product -> log.debug("Processing product: {}", product.getProductName())))
+                .collectList()
+                .doOnNext(catalogService::merge)
+                .doOnSuccess(loaded -> log.info("All products have been loaded into cache"))
                 .doOnError(error -> log.error("Error loading products into cache: {}", error.getMessage()))
                 .then();
     }
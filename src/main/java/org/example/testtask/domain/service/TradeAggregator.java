@@ -0,0 +1,122 @@
+package org.example.testtask.domain.service;
+
+import org.example.testtask.domain.model.GroupAggregate;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.model.TradeSummary;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Однопрохідний акумулятор group-by агрегатів по продукту, валюті та даті.
+ * Не потокобезпечний: при паралельній обробці кожна рейка має власний екземпляр,
+ * а наприкінці вони зливаються через {@link #merge}, тож спільного стану під час підрахунку немає.
+ */
+public class TradeAggregator {
+
+    private static final int AVERAGE_SCALE = 4;
+
+    private final Map<String, Accumulator> byProduct = new HashMap<>();
+    private final Map<String, Accumulator> byCurrency = new HashMap<>();
+    private final Map<String, Accumulator> byDate = new HashMap<>();
+    private final Accumulator total = new Accumulator(null);
+    private long missingProducts;
+
+    public TradeAggregator add(Trade trade) {
+        BigDecimal price = trade.getPrice();
+        total.add(price);
+        if (TradeService.MISSING_PRODUCT_NAME.equals(trade.getProductName())) {
+            missingProducts++;
+        }
+        byProduct.computeIfAbsent(String.valueOf(trade.getProductId()),
+                key -> new Accumulator(trade.getProductName())).add(price);
+        byCurrency.computeIfAbsent(String.valueOf(trade.getCurrency()), key -> new Accumulator(null)).add(price);
+        byDate.computeIfAbsent(String.valueOf(trade.getDate()), key -> new Accumulator(null)).add(price);
+        return this;
+    }
+
+    public TradeAggregator merge(TradeAggregator other) {
+        total.merge(other.total);
+        missingProducts += other.missingProducts;
+        merge(byProduct, other.byProduct);
+        merge(byCurrency, other.byCurrency);
+        merge(byDate, other.byDate);
+        return this;
+    }
+
+    public TradeSummary toSummary() {
+        return TradeSummary.builder()
+                .trades(total.count)
+                .missingProducts(missingProducts)
+                .totalPrice(total.total)
+                .byProduct(groups(byProduct))
+                .byCurrency(groups(byCurrency))
+                .byDate(groups(byDate))
+                .build();
+    }
+
+    private static void merge(Map<String, Accumulator> target, Map<String, Accumulator> source) {
+        source.forEach((key, accumulator) -> target.merge(key, accumulator, Accumulator::merge));
+    }
+
+    private static List<GroupAggregate> groups(Map<String, Accumulator> accumulators) {
+        return accumulators.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> entry.getValue().toAggregate(entry.getKey()))
+                .toList();
+    }
+
+    private static final class Accumulator {
+
+        private final String productName;
+        private long count;
+        private long priced;
+        private BigDecimal total = BigDecimal.ZERO;
+        private BigDecimal min;
+        private BigDecimal max;
+
+        private Accumulator(String productName) {
+            this.productName = productName;
+        }
+
+        void add(BigDecimal price) {
+            count++;
+            if (price == null) {
+                return;
+            }
+            priced++;
+            total = total.add(price);
+            min = min == null || price.compareTo(min) < 0 ? price : min;
+            max = max == null || price.compareTo(max) > 0 ? price : max;
+        }
+
+        Accumulator merge(Accumulator other) {
+            count += other.count;
+            priced += other.priced;
+            total = total.add(other.total);
+            if (other.min != null && (min == null || other.min.compareTo(min) < 0)) {
+                min = other.min;
+            }
+            if (other.max != null && (max == null || other.max.compareTo(max) > 0)) {
+                max = other.max;
+            }
+            return this;
+        }
+
+        GroupAggregate toAggregate(String key) {
+            return GroupAggregate.builder()
+                    .key(key)
+                    .productName(productName)
+                    .count(count)
+                    .total(total)
+                    .min(min)
+                    .max(max)
+                    .average(priced == 0 ? null
+                            : total.divide(BigDecimal.valueOf(priced), AVERAGE_SCALE, RoundingMode.HALF_EVEN))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.testtask.domain.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.infrastructure.dedup.DedupConfiguration;
+import org.example.testtask.infrastructure.dedup.ScalableBloomFilter;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+
+/**
+ * Виявляє повторно надіслані трейди за ключем (date, productId, currency, price) за один прохід.
+ * Замість точної множини використовується масштабований фільтр Блума з обмеженою пам'яттю,
+ * тож зрідка унікальний рядок може бути помилково прийнятий за дублікат.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TradeDeduplicator {
+
+    private static final long SEED_1 = 0x9E3779B97F4A7C15L;
+    private static final long SEED_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME = 0x100000001B3L;
+
+    private final DedupConfiguration config;
+    private final EnrichmentMetrics metrics;
+
+    /**
+     * Пропускає потік через фільтр дублікатів; кожна підписка має власний фільтр.
+     */
+    public Flux<Trade> deduplicate(Flux<Trade> trades) {
+        if (!config.isEnabled()) {
+            return trades;
+        }
+        boolean drop = config.getMode() == DedupConfiguration.Mode.DROP;
+        return Flux.defer(() -> {
+            ScalableBloomFilter filter = new ScalableBloomFilter(config.getInitialCapacity(),
+                    config.getFalsePositiveRate(), config.getMaxMemory().toBytes());
+            return trades
+                    .filter(trade -> {
+                        boolean saturated = filter.isSaturated();
+                        boolean duplicate = filter.putIfAbsent(hash(trade, SEED_1), hash(trade, SEED_2) | 1);
+                        if (!saturated && filter.isSaturated()) {
+                            log.warn("Duplicate filter reached its {} byte limit, false positive rate will grow",
+                                    filter.getAllocatedBytes());
+                        }
+                        if (!duplicate) {
+                            return true;
+                        }
+                        metrics.duplicateSuspected(drop);
+                        log.debug("Suspected duplicate trade: {}", trade);
+                        return !drop;
+                    })
+                    .doOnComplete(() -> log.info("Duplicate filter used {} bytes in {} layers",
+                            filter.getAllocatedBytes(), filter.getLayers()));
+        });
+    }
+
+    static long hash(Trade trade, long seed) {
+        long hash = seed;
+        hash = mix(hash, trade.getDate() == null ? Long.MIN_VALUE : trade.getDate().toEpochDay());
+        hash = mix(hash, trade.getProductId());
+        hash = mix(hash, trade.getCurrency());
+        BigDecimal price = trade.getPrice();
+        if (price != null) {
+            // 100.0 і 100.00 — та сама ціна
+            BigDecimal normalized = price.stripTrailingZeros();
+            hash = mix(hash, normalized.scale());
+            hash = mix(hash, normalized.unscaledValue().bitLength() < 64
+                    ? normalized.unscaledValue().longValue()
+                    : normalized.unscaledValue().hashCode());
+        }
+        return finish(hash);
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1L);
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+        return mix(hash, value.length());
+    }
+
+    private static long mix(long hash, long value) {
+        return (hash ^ finish(value)) * PRIME;
+    }
+
+    // Фіналізатор MurmurHash3 fmix64
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
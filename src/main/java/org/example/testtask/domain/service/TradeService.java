@@ -1,22 +1,28 @@
 package org.example.testtask.domain.service;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.testtask.domain.model.Product;
 import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.model.TradeSummary;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class TradeService {
 
+    public static final String MISSING_PRODUCT_NAME = "Missing Product Name";
 
-    private final Map<String, Product> productCache = new ConcurrentHashMap<>();
+    private final EnrichmentMetrics metrics;
+    private final ProductCatalogService catalogService;
 
     /**
      * Завантажує всі продукти та кешує їх.
@@ -26,9 +32,8 @@ public class TradeService {
         return products
                 .collectMap(Product::getProductId, product -> product)
                 .doOnNext(map -> {
-                    productCache.clear();
-                    productCache.putAll(map); // Оновлюємо кеш
-                    log.info("Product cache updated: {}", productCache);
+                    catalogService.replace(map.values()); // Оновлюємо каталог
+                    log.info("Product catalog updated: {} products", map.size());
                 });
     }
 
@@ -36,14 +41,28 @@ public class TradeService {
      * Збагачує трейд інформацією про продукт.
      */
     public Mono<Trade> enrichTradeWithProduct(Trade trade) {
-        Product product = productCache.get(trade.getProductId());
+        return Mono.just(trade.withProductName(resolveProductName(trade.getProductId())));
+    }
 
-        if (product == null) {
-            log.warn("Product not found for productId: {}", trade.getProductId());
-            return Mono.just(trade.withProductName("Missing Product Name"));
+    /**
+     * Назва продукту з каталогу або {@link #MISSING_PRODUCT_NAME}, без створення трейду (для режиму splice).
+     */
+    public String resolveProductName(String productId) {
+        String productName;
+        if (metrics.sampleEnrichLatency()) {
+            long start = System.nanoTime();
+            productName = catalogService.findProductName(productId);
+            metrics.enrichLatency(System.nanoTime() - start);
+        } else {
+            productName = catalogService.findProductName(productId);
         }
+        metrics.tradeEnriched(productName != null);
 
-        return Mono.just(trade.withProductName(product.getProductName())); // Використовуємо `withProductName`
+        if (productName == null) {
+            log.debug("Product not found for productId: {}", productId);
+            return MISSING_PRODUCT_NAME;
+        }
+        return productName;
     }
 
 
@@ -53,7 +72,22 @@ public class TradeService {
     public Mono<Void> enrichTrades(Flux<Trade> trades) {
         return trades
                 .flatMap(this::enrichTradeWithProduct)
-                .doOnNext(enrichedTrade -> log.info("Enriched trade: {}", enrichedTrade))
+                .doOnNext(enrichedTrade -> log.debug("Enriched trade: {}", enrichedTrade))
                 .then();
     }
+
+    /**
+     * Збагачує трейди і за той самий прохід рахує агрегати ціни по продукту, валюті та даті.
+     * Кожна паралельна рейка накопичує власні агрегати, які зливаються лише наприкінці.
+     */
+    public Mono<TradeSummary> aggregateTrades(Flux<Trade> trades, int parallelism) {
+        return trades
+                .parallel(parallelism)
+                .runOn(Schedulers.parallel())
+                .flatMap(this::enrichTradeWithProduct)
+                .collect(TradeAggregator::new, TradeAggregator::add)
+                .reduce(TradeAggregator::merge)
+                .defaultIfEmpty(new TradeAggregator())
+                .map(TradeAggregator::toSummary);
+    }
 }
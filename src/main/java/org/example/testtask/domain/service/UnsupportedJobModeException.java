@@ -0,0 +1,11 @@
+package org.example.testtask.domain.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+public class UnsupportedJobModeException extends RuntimeException {
+    public UnsupportedJobModeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.testtask.infrastructure.admission;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Адаптивний ліміт паралельних запитів у стилі gradient/AIMD.
+ * Ліміт росте, поки латентність тримається біля довгострокової бази, і мультиплікативно падає,
+ * коли латентність зростає або запити завершуються помилкою. Запити понад ліміт чекають
+ * в обмеженій черзі; якщо черга повна або очікування вийшло, запит відхиляється.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    public enum Outcome {
+        SUCCESS,
+        DROPPED,
+        IGNORED
+    }
+
+    private static final int LONG_WINDOW = 100;
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final Duration queueTimeout;
+    private final double tolerance;
+
+    private final Deque<Sinks.One<Permit>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      int queueSize, Duration queueTimeout, double tolerance) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.queueTimeout = queueTimeout;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Видає дозвіл одразу, ставить запит у чергу або завершується {@link ConcurrencyLimitExceededException}.
+     */
+    public Mono<Permit> acquire() {
+        Sinks.One<Permit> waiter;
+        synchronized (this) {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Mono.just(new Permit(inFlight));
+            }
+            if (waiters.size() >= queueSize) {
+                return Mono.error(new ConcurrencyLimitExceededException("Concurrency limit reached and queue is full"));
+            }
+            waiter = Sinks.one();
+            waiters.addLast(waiter);
+        }
+        return waiter.asMono()
+                .timeout(queueTimeout, Mono.defer(() -> onWaitTimeout(waiter)))
+                .doOnCancel(() -> onWaitCancelled(waiter));
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private Mono<Permit> onWaitTimeout(Sinks.One<Permit> waiter) {
+        synchronized (this) {
+            if (waiters.remove(waiter)) {
+                return Mono.error(new ConcurrencyLimitExceededException("Timed out waiting for a concurrency permit"));
+            }
+        }
+        // Дозвіл уже передано цьому очікувачу, але ще не доставлено
+        return waiter.asMono();
+    }
+
+    private void onWaitCancelled(Sinks.One<Permit> waiter) {
+        boolean removed;
+        synchronized (this) {
+            removed = waiters.remove(waiter);
+        }
+        if (!removed) {
+            waiter.asMono().subscribe(permit -> permit.release(Outcome.IGNORED));
+        }
+    }
+
+    private void onRelease(Permit permit, Outcome outcome) {
+        List<Sinks.One<Permit>> handOff = new ArrayList<>();
+        List<Permit> permits = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            if (outcome == Outcome.SUCCESS) {
+                onSample(System.nanoTime() - permit.startNanos, permit.inFlightAtStart);
+            } else if (outcome == Outcome.DROPPED) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+            }
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                inFlight++;
+                handOff.add(waiters.pollFirst());
+                permits.add(new Permit(inFlight));
+            }
+        }
+        for (int i = 0; i < handOff.size(); i++) {
+            if (handOff.get(i).tryEmitValue(permits.get(i)).isFailure()) {
+                permits.get(i).release(Outcome.IGNORED);
+            }
+        }
+    }
+
+    private void onSample(long rttNanos, int inFlightAtStart) {
+        double rtt = Math.max(1, rttNanos);
+        longRtt = longRtt == 0 ? rtt : longRtt + (rtt - longRtt) / LONG_WINDOW;
+        if (longRtt / rtt > 2) {
+            // Латентність різко впала: даємо базі швидше наздогнати
+            longRtt *= 0.95;
+        }
+        if (inFlightAtStart < limit / 2) {
+            // Вузол не насичений, вибірка нічого не каже про межу
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / rtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + newLimit * SMOOTHING));
+    }
+
+    public final class Permit {
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        public void release(Outcome outcome) {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            onRelease(this, outcome);
+        }
+    }
+}
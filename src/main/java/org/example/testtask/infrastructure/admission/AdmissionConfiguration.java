@@ -0,0 +1,42 @@
+package org.example.testtask.infrastructure.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "enrichment.admission")
+public class AdmissionConfiguration {
+    private boolean enabled = true;
+    // Усі POST-шляхи, що приймають CSV-файл
+    private List<String> guardedPaths = List.of("/api/v1/enrich", "/api/v1/enrich/summary", "/api/v1/enrich/splice",
+            "/api/v1/products", "/api/v1/jobs");
+
+    // Пам'ять: явний бюджет або частка максимального heap
+    private DataSize memoryBudget;
+    private double heapFraction = 0.5;
+    private double memoryAmplification = 6.0;
+    // Content-Length стиснутого тіла множиться на цей коефіцієнт: CSV зазвичай стискається gzip у ~10 разів
+    private double compressionRatio = 10.0;
+    private DataSize unknownLengthReservation = DataSize.ofMegabytes(64);
+
+    // Адаптивний ліміт паралельності
+    private int initialLimit = 8;
+    private int minLimit = 1;
+    private int maxLimit = 64;
+    private int queueSize = 32;
+    private Duration queueTimeout = Duration.ofSeconds(5);
+    private double latencyTolerance = 2.0;
+
+    public long resolveMemoryBudgetBytes() {
+        if (memoryBudget != null) {
+            return memoryBudget.toBytes();
+        }
+        return (long) (Runtime.getRuntime().maxMemory() * heapFraction);
+    }
+}
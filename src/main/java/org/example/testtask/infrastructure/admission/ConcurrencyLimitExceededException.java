@@ -0,0 +1,7 @@
+package org.example.testtask.infrastructure.admission;
+
+public class ConcurrencyLimitExceededException extends RuntimeException {
+    public ConcurrencyLimitExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
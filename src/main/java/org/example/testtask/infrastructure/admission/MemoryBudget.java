@@ -0,0 +1,40 @@
+package org.example.testtask.infrastructure.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Глобальний для вузла бюджет пам'яті під буфери запитів і стан розбору.
+ */
+public class MemoryBudget {
+
+    private final long totalBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    public MemoryBudget(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public boolean tryReserve(long bytes) {
+        while (true) {
+            long reserved = reservedBytes.get();
+            if (reserved + bytes > totalBytes) {
+                return false;
+            }
+            if (reservedBytes.compareAndSet(reserved, reserved + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    public void release(long bytes) {
+        reservedBytes.addAndGet(-bytes);
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.testtask.infrastructure.buffer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Серіалізує елементи буфера у файли переповнення і читає їх назад.
+ */
+public interface SpillCodec<T> {
+
+    void write(T item, DataOutput out) throws IOException;
+
+    T read(DataInput in) throws IOException;
+}
@@ -0,0 +1,19 @@
+package org.example.testtask.infrastructure.buffer;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "enrichment.spill")
+public class SpillConfiguration {
+    private int memoryRows = 8192;
+    private int segmentRows = 4096;
+    private int prefetch = 256;
+    private Path spillDir = Path.of(System.getProperty("java.io.tmpdir"), "testtask-spill");
+    private DataSize maxSpillSize = DataSize.ofGigabytes(4);
+}
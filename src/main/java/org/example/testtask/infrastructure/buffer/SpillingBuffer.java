@@ -0,0 +1,354 @@
+package org.example.testtask.infrastructure.buffer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Буфер між швидким продюсером і повільним споживачем: перші {@code memoryRows} елементів
+ * тримаються в пам'яті, решта дописується у тимчасові файли-сегменти і зчитується назад у тому ж порядку.
+ * Продюсер зупиняється лише тоді, коли на диску накопичилося більше {@code maxSpillBytes}.
+ */
+@Slf4j
+public class SpillingBuffer<T> {
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final SpillCodec<T> codec;
+    private final Path spillDir;
+    private final int memoryRows;
+    private final int segmentRows;
+    private final int prefetch;
+    private final long maxSpillBytes;
+    private final Scheduler scheduler;
+    private final EnrichmentMetrics metrics;
+
+    public SpillingBuffer(SpillCodec<T> codec, SpillConfiguration config, Scheduler scheduler, EnrichmentMetrics metrics) {
+        this.codec = codec;
+        this.spillDir = config.getSpillDir();
+        this.memoryRows = Math.max(1, config.getMemoryRows());
+        this.segmentRows = Math.max(1, config.getSegmentRows());
+        this.prefetch = Math.max(1, config.getPrefetch());
+        this.maxSpillBytes = config.getMaxSpillSize().toBytes();
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    public Flux<T> buffer(Flux<T> source) {
+        return Flux.create(sink -> {
+            Drain drain = new Drain(sink);
+            sink.onRequest(n -> drain.schedule());
+            sink.onDispose(drain::onSinkDisposed);
+            source.subscribeOn(scheduler).subscribe(drain);
+        });
+    }
+
+    private final class Drain extends BaseSubscriber<T> {
+
+        private final FluxSink<T> sink;
+        private final Scheduler.Worker worker = scheduler.createWorker();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // Стан продюсера, захищений монітором this
+        private final Deque<T> memory = new ArrayDeque<>();
+        private final Deque<Segment> segments = new ArrayDeque<>();
+        private Segment writing;
+        private long spilledRows;
+        private long spilledBytes;
+        private boolean parked;
+        private boolean done;
+        private Throwable error;
+        private volatile boolean cancelled;
+
+        // Читаються лише з потоку воркера
+        private Segment reading;
+        private boolean terminated;
+
+        // Лічильник для поповнення запиту; onNext за специфікацією Reactive Streams не викликається паралельно,
+        // тож поле змінює лише потік продюсера
+        private int received;
+
+        private Drain(FluxSink<T> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            subscription.request(prefetch);
+        }
+
+        @Override
+        protected void hookOnNext(T item) {
+            synchronized (this) {
+                if (cancelled || done) {
+                    return;
+                }
+                if (spilledRows == 0 && memory.size() < memoryRows) {
+                    memory.addLast(item);
+                } else {
+                    try {
+                        spill(item);
+                    } catch (IOException e) {
+                        log.error("Failed to spill buffered item to {}: {}", spillDir, e.getMessage());
+                        done = true;
+                        error = e;
+                        cancel();
+                    }
+                }
+            }
+            if (++received == prefetch) {
+                received = 0;
+                requestMore();
+            }
+            schedule();
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            synchronized (this) {
+                done = true;
+            }
+            schedule();
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            synchronized (this) {
+                done = true;
+                error = throwable;
+            }
+            schedule();
+        }
+
+        private void spill(T item) throws IOException {
+            if (writing == null) {
+                Files.createDirectories(spillDir);
+                writing = Segment.create(spillDir);
+            }
+            long before = writing.out.size();
+            codec.write(item, writing.out);
+            long bytes = writing.out.size() - before;
+            writing.rows++;
+            writing.bytes += bytes;
+            spilledRows++;
+            spilledBytes += bytes;
+            metrics.rowSpilled(bytes);
+            if (writing.rows >= segmentRows) {
+                writing.finishWrite();
+                segments.addLast(writing);
+                writing = null;
+            }
+        }
+
+        private void requestMore() {
+            synchronized (this) {
+                if (spilledBytes >= maxSpillBytes) {
+                    parked = true;
+                    return;
+                }
+            }
+            request(prefetch);
+        }
+
+        private void releaseSpill(Segment segment) {
+            boolean resume;
+            synchronized (this) {
+                spilledBytes -= segment.bytes;
+                resume = parked && spilledBytes < maxSpillBytes;
+                if (resume) {
+                    parked = false;
+                }
+            }
+            metrics.spillReleased(segment.bytes);
+            segment.delete();
+            if (resume) {
+                request(prefetch);
+            }
+        }
+
+        private void onSinkDisposed() {
+            cancelled = true;
+            cancel();
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                worker.schedule(this::drainLoop);
+            } catch (RejectedExecutionException e) {
+                // Воркер уже звільнено після завершення потоку
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            while (true) {
+                drain();
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void drain() {
+            if (terminated) {
+                return;
+            }
+            if (cancelled) {
+                cleanUp();
+                return;
+            }
+            try {
+                while (sink.requestedFromDownstream() > 0 && !cancelled) {
+                    T item = poll();
+                    if (item == null) {
+                        break;
+                    }
+                    sink.next(item);
+                }
+            } catch (IOException e) {
+                log.error("Failed to read spilled items from {}: {}", spillDir, e.getMessage());
+                cancel();
+                sink.error(e);
+                return;
+            }
+            Throwable failure;
+            synchronized (this) {
+                if (!done || !memory.isEmpty() || spilledRows > 0 || cancelled) {
+                    return;
+                }
+                failure = error;
+            }
+            if (failure != null) {
+                sink.error(failure);
+            } else {
+                sink.complete();
+            }
+        }
+
+        private T poll() throws IOException {
+            while (true) {
+                if (reading != null) {
+                    if (reading.remaining > 0) {
+                        T item = codec.read(reading.in);
+                        reading.remaining--;
+                        synchronized (this) {
+                            spilledRows--;
+                        }
+                        return item;
+                    }
+                    Segment drained = reading;
+                    reading = null;
+                    releaseSpill(drained);
+                    continue;
+                }
+                synchronized (this) {
+                    if (!memory.isEmpty()) {
+                        return memory.pollFirst();
+                    }
+                    Segment next = segments.pollFirst();
+                    if (next == null && writing != null) {
+                        // Споживач наздогнав продюсера: закриваємо недописаний сегмент і читаємо його
+                        writing.finishWrite();
+                        next = writing;
+                        writing = null;
+                    }
+                    if (next == null) {
+                        return null;
+                    }
+                    reading = next;
+                }
+                reading.openForRead();
+            }
+        }
+
+        private void cleanUp() {
+            terminated = true;
+            if (reading != null) {
+                releaseSpill(reading);
+                reading = null;
+            }
+            synchronized (this) {
+                memory.clear();
+                if (writing != null) {
+                    segments.addLast(writing);
+                    writing = null;
+                }
+            }
+            Segment segment;
+            while ((segment = pollSegment()) != null) {
+                releaseSpill(segment);
+            }
+            worker.dispose();
+        }
+
+        private synchronized Segment pollSegment() {
+            return segments.pollFirst();
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private DataOutputStream out;
+        private DataInputStream in;
+        private int rows;
+        private int remaining;
+        private long bytes;
+
+        private Segment(Path file, DataOutputStream out) {
+            this.file = file;
+            this.out = out;
+        }
+
+        static Segment create(Path dir) throws IOException {
+            Path file = Files.createTempFile(dir, "spill-", ".bin");
+            return new Segment(file, new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_SIZE)));
+        }
+
+        void finishWrite() throws IOException {
+            out.close();
+            out = null;
+        }
+
+        void openForRead() throws IOException {
+            remaining = rows;
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), IO_BUFFER_SIZE));
+        }
+
+        void delete() {
+            try {
+                if (out != null) {
+                    out.close();
+                }
+                if (in != null) {
+                    in.close();
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete spill file {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.testtask.infrastructure.buffer;
+
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.infrastructure.catalog.StringDictionary;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Компактний бінарний формат трейду для файлів переповнення.
+ */
+@Component
+public class TradeSpillCodec implements SpillCodec<Trade> {
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte CODED_VALUE = 1;
+    private static final byte INLINE_VALUE = 2;
+
+    // Назви й валюти пишуться на диск кодом словника і зчитуються канонічними екземплярами.
+    // Файли переповнення живуть не довше за процес, тож коди не потребують окремого збереження
+    private final StringDictionary productNames = new StringDictionary(MAX_DICTIONARY_SIZE);
+    private final StringDictionary currencies = new StringDictionary(MAX_DICTIONARY_SIZE);
+
+    @Override
+    public void write(Trade trade, DataOutput out) throws IOException {
+        out.writeLong(trade.getDate() == null ? NO_DATE : trade.getDate().toEpochDay());
+        writeString(trade.getProductId(), out);
+        writeCoded(trade.getProductName(), productNames, out);
+        writeCoded(trade.getCurrency(), currencies, out);
+        writeString(trade.getPrice() == null ? null : trade.getPrice().toString(), out);
+    }
+
+    @Override
+    public Trade read(DataInput in) throws IOException {
+        long epochDay = in.readLong();
+        String productId = readString(in);
+        String productName = readCoded(productNames, in);
+        String currency = readCoded(currencies, in);
+        String price = readString(in);
+        return Trade.builder()
+                .date(epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay))
+                .productId(productId)
+                .productName(productName)
+                .currency(currency)
+                .price(price == null ? null : new BigDecimal(price))
+                .build();
+    }
+
+    private static void writeString(String value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeCoded(String value, StringDictionary dictionary, DataOutput out) throws IOException {
+        int code = dictionary.encode(value);
+        if (value == null) {
+            out.writeByte(NULL_VALUE);
+        } else if (code != StringDictionary.NO_CODE) {
+            out.writeByte(CODED_VALUE);
+            out.writeInt(code);
+        } else {
+            out.writeByte(INLINE_VALUE);
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readCoded(StringDictionary dictionary, DataInput in) throws IOException {
+        return switch (in.readByte()) {
+            case NULL_VALUE -> null;
+            case CODED_VALUE -> dictionary.decode(in.readInt());
+            case INLINE_VALUE -> in.readUTF();
+            default -> throw new IOException("Corrupt spill record");
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.testtask.infrastructure.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+/**
+ * Виносить блокуючі виклики RedisTemplate з потоків event loop.
+ * Віртуальний потік паркується на очікуванні відповіді Redis і не займає потік платформи,
+ * тож кількість одночасних викликів не обмежена розміром пулу.
+ */
+@Slf4j
+@Component
+public class BlockingRedisExecutor implements DisposableBean {
+
+    private final CacheConfiguration.ExecutionMode mode;
+    private final Scheduler scheduler;
+
+    public BlockingRedisExecutor(CacheConfiguration config) {
+        this.mode = config.getExecutionMode();
+        this.scheduler = switch (mode) {
+            case VIRTUAL_THREADS -> Schedulers.fromExecutorService(
+                    Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("redis-", 0).factory()), "redis-virtual");
+            case BOUNDED_ELASTIC -> Schedulers.boundedElastic();
+            case CALLER -> Schedulers.immediate();
+        };
+        log.info("Blocking Redis calls run in {} mode", mode);
+    }
+
+    public <T> Mono<T> call(Callable<T> blockingCall) {
+        return Mono.fromCallable(blockingCall).subscribeOn(scheduler);
+    }
+
+    public Mono<Void> run(Runnable blockingCall) {
+        return call(() -> {
+            blockingCall.run();
+            return null;
+        }).then();
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public CacheConfiguration.ExecutionMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void destroy() {
+        // boundedElastic та immediate — спільні планувальники Reactor, їх не закриваємо
+        if (mode == CacheConfiguration.ExecutionMode.VIRTUAL_THREADS) {
+            scheduler.dispose();
+        }
+    }
+}
@@ -4,11 +4,82 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import lombok.Data;
 
+import java.time.Duration;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "cache")
 public class CacheConfiguration {
+
+    /**
+     * Де виконуються блокуючі виклики Redis.
+     */
+    public enum ExecutionMode {
+        /** Окремий віртуальний потік на кожен виклик. */
+        VIRTUAL_THREADS,
+        /** Спільний пул Reactor {@code boundedElastic}. */
+        BOUNDED_ELASTIC,
+        /** Без перемикання: виклик блокує потік, що підписався (лише для порівняння). */
+        CALLER
+    }
+
+    /**
+     * Коли завантажені продукти потрапляють у Redis.
+     */
+    public enum WriteMode {
+        /** Завантаження завершується лише після запису кожного продукту в Redis. */
+        WRITE_THROUGH,
+        /** Каталог оновлюється одразу, а в Redis продукти дописує фонова черга пакетами. */
+        WRITE_BEHIND
+    }
+
+    /**
+     * Як продукти розкладені по ключах Redis.
+     */
+    public enum Layout {
+        /** Окремий ключ {@code product:<id>} з JDK-серіалізованим продуктом і блокуванням на запис. */
+        KEY_PER_PRODUCT,
+        /** Назви продуктів рядками в невеликих хешах {@code product:b:<n>}, див. {@link ProductBuckets}. */
+        BUCKETED
+    }
+
+    private static final int PRODUCTS_PER_BUCKET = 100;
+
     private long timeoutHours = 24;
     private int maxRetries = 3;
     private long retryDelayMs = 1000;
-}
\ No newline at end of file
+    private ExecutionMode executionMode = ExecutionMode.VIRTUAL_THREADS;
+    private WriteMode writeMode = WriteMode.WRITE_THROUGH;
+    private Layout layout = Layout.KEY_PER_PRODUCT;
+    /*
+     * Розмір бакетів для layout=bucketed. Економія пам'яті з'являється, лише коли в бакеті десятки продуктів,
+     * і зникає, коли їх більше за hash-max-listpack-entries (128). Тому кількість бакетів рахується з очікуваного
+     * розміру каталогу: expectedProducts / 100. Явне bucketCount > 0 має пріоритет.
+     * Кількість бакетів визначає розкладку ключів, тож вона має бути однаковою на всіх вузлах і не змінюватися
+     * без повторного завантаження продуктів.
+     */
+    private long expectedProducts = 100_000;
+    private int bucketCount = 0;
+    private WriteBehind writeBehind = new WriteBehind();
+
+    /**
+     * Кількість бакетів: задана явно або порахована з {@code expectedProducts} з розрахунку ~100 продуктів на бакет.
+     */
+    public int resolveBucketCount() {
+        if (bucketCount > 0) {
+            return bucketCount;
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, (expectedProducts + PRODUCTS_PER_BUCKET - 1) / PRODUCTS_PER_BUCKET));
+    }
+
+    @Data
+    public static class WriteBehind {
+        // Скільки різних продуктів може чекати на запис; що не вміщується, чекає на флаш, а не додається понад ліміт
+        private int queueCapacity = 100_000;
+        private int batchSize = 1000;
+        private Duration flushInterval = Duration.ofMillis(200);
+        // Затримка між повторами росте від retryDelayMs до цього значення
+        private Duration maxRetryDelay = Duration.ofSeconds(30);
+        private Duration shutdownTimeout = Duration.ofSeconds(30);
+    }
+}
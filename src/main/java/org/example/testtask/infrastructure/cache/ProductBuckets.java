@@ -0,0 +1,196 @@
+package org.example.testtask.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.example.testtask.infrastructure.jfr.RedisCommandEvent;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Компактне сховище назв продуктів для {@code cache.layout=bucketed}: продукти розкладені за хешем ID
+ * по {@link CacheConfiguration#resolveBucketCount()} невеликих хешах {@code product:b:<n>}, поле — productId, значення — назва як рядок.
+ * <p>
+ * Поки в бакеті не більше {@code hash-max-listpack-entries} полів (128 за замовчуванням) і назви коротші за
+ * {@code hash-max-listpack-value} (64 байти), Redis тримає бакет у компактному listpack. Це дешевше за окремий
+ * ключ із JDK-серіалізованим продуктом на кожен ID. У цьому layout бакети зберігають і сам каталог замість хешу
+ * {@code products}, тому, як і він, не мають TTL: {@code timeout-hours} діє лише на ключі {@code product:<id>}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductBuckets {
+
+    static final String BUCKET_PREFIX = "product:b:";
+
+    /**
+     * {@code KEYS} — бакети; {@code ARGV} — для кожного бакета кількість полів і самі поля.
+     * Повертає значення всіх полів підряд, {@code nil} для відсутніх.
+     */
+    @SuppressWarnings("rawtypes")
+    static final RedisScript<List> MULTI_BUCKET_HMGET = new DefaultRedisScript<>("""
+            local result = {}
+            local arg = 1
+            for _, key in ipairs(KEYS) do
+                local count = tonumber(ARGV[arg])
+                local values = redis.call('HMGET', key, unpack(ARGV, arg + 1, arg + count))
+                for i = 1, count do
+                    result[#result + 1] = values[i]
+                end
+                arg = arg + count + 1
+            end
+            return result
+            """, List.class);
+
+    /**
+     * {@code KEYS} — бакети; {@code ARGV} — для кожного бакета кількість полів і пари поле–значення.
+     * Повертає кількість записаних бакетів.
+     */
+    static final RedisScript<Long> MULTI_BUCKET_HSET = new DefaultRedisScript<>("""
+            local arg = 1
+            for _, key in ipairs(KEYS) do
+                local last = arg + 2 * tonumber(ARGV[arg])
+                local from = arg + 1
+                -- unpack обмежений стеком Lua, тож великий бакет пишеться кількома HSET по 500 полів
+                while from <= last do
+                    local to = math.min(from + 999, last)
+                    redis.call('HSET', key, unpack(ARGV, from, to))
+                    from = to + 1
+                end
+                arg = last + 1
+            end
+            return #KEYS
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheConfiguration cacheConfig;
+
+    public String bucketKey(String productId) {
+        // String.hashCode однаковий на всіх вузлах; перемішування розкидає послідовні ID по бакетах
+        int hash = productId.hashCode() * 0x9E3779B9;
+        return BUCKET_PREFIX + Math.floorMod(hash ^ (hash >>> 16), cacheConfig.resolveBucketCount());
+    }
+
+    public String get(String productId) {
+        String key = bucketKey(productId);
+        RedisCommandEvent event = RedisCommandEvent.start("HGET", key);
+        Object name = redisTemplate.opsForHash().get(key, productId);
+        event.finish(name != null);
+        return (String) name;
+    }
+
+    /**
+     * Читає назви одним скриптом {@link #MULTI_BUCKET_HMGET}: {@code HMGET} по кожному зачепленому бакету
+     * за один round trip. Конвеєр тут не годиться: у Lettuce без пулу він відкриває окреме з'єднання на кожен виклик.
+     *
+     * @return назви за ID; відсутні ID у мапі не представлені
+     */
+    public Map<String, String> getAll(Collection<String> productIds) {
+        Map<String, List<String>> byBucket = new LinkedHashMap<>();
+        for (String productId : new LinkedHashSet<>(productIds)) {
+            byBucket.computeIfAbsent(bucketKey(productId), key -> new ArrayList<>()).add(productId);
+        }
+        if (byBucket.isEmpty()) {
+            return Map.of();
+        }
+        List<String> keys = new ArrayList<>(byBucket.keySet());
+        List<String> ids = new ArrayList<>(productIds.size());
+        Object[] args = new Object[byBucket.size() + productIds.size()];
+        int arg = 0;
+        for (List<String> bucket : byBucket.values()) {
+            args[arg++] = String.valueOf(bucket.size());
+            for (String productId : bucket) {
+                args[arg++] = productId;
+                ids.add(productId);
+            }
+        }
+        RedisCommandEvent event = RedisCommandEvent.start("HMGET", keys.get(0), ids.size());
+        List<?> values = redisTemplate.execute(MULTI_BUCKET_HMGET, keys, Arrays.copyOf(args, arg));
+        Map<String, String> names = new HashMap<>(ids.size() * 2);
+        for (int i = 0; values != null && i < ids.size() && i < values.size(); i++) {
+            if (values.get(i) instanceof String name) {
+                names.put(ids.get(i), name);
+            }
+        }
+        event.finish(!names.isEmpty());
+        return names;
+    }
+
+    public void put(String productId, String productName) {
+        String key = bucketKey(productId);
+        RedisCommandEvent event = RedisCommandEvent.start("HSET", key);
+        redisTemplate.opsForHash().put(key, productId, productName);
+        event.finish(true);
+    }
+
+    /**
+     * Записує назви одним скриптом {@link #MULTI_BUCKET_HSET}: {@code HSET} з багатьма полями на кожен бакет
+     * за один round trip на спільному з'єднанні, як і {@link #getAll}.
+     */
+    public void putAll(Map<String, String> productNames) {
+        Map<String, List<String>> byBucket = new LinkedHashMap<>();
+        productNames.forEach((productId, productName) -> {
+            List<String> fields = byBucket.computeIfAbsent(bucketKey(productId), key -> new ArrayList<>());
+            fields.add(productId);
+            fields.add(productName);
+        });
+        if (byBucket.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(byBucket.keySet());
+        Object[] args = new Object[byBucket.size() + 2 * productNames.size()];
+        int arg = 0;
+        for (List<String> fields : byBucket.values()) {
+            args[arg++] = String.valueOf(fields.size() / 2);
+            for (String field : fields) {
+                args[arg++] = field;
+            }
+        }
+        RedisCommandEvent event = RedisCommandEvent.start("HSET", keys.get(0), productNames.size());
+        redisTemplate.execute(MULTI_BUCKET_HSET, keys, args);
+        event.finish(true);
+    }
+
+    /**
+     * Усі назви одного бакета ({@code HGETALL}); бакет — це близько сотні полів, тож відповідь невелика.
+     */
+    public Map<String, String> entries(int bucket) {
+        String key = BUCKET_PREFIX + bucket;
+        RedisCommandEvent event = RedisCommandEvent.start("HGETALL", key);
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(key);
+        event.finish(!entries.isEmpty());
+        Map<String, String> names = new HashMap<>(entries.size() * 2);
+        entries.forEach((productId, productName) -> names.put((String) productId, (String) productName));
+        return names;
+    }
+
+    /**
+     * Кількість полів у бакеті ({@code HLEN}).
+     */
+    public long size(int bucket) {
+        String key = BUCKET_PREFIX + bucket;
+        RedisCommandEvent event = RedisCommandEvent.start("HLEN", key);
+        Long size = redisTemplate.opsForHash().size(key);
+        event.finish(size != null);
+        return size == null ? 0 : size;
+    }
+
+    public int bucketCount() {
+        return cacheConfig.resolveBucketCount();
+    }
+
+    public void remove(String productId) {
+        String key = bucketKey(productId);
+        RedisCommandEvent event = RedisCommandEvent.start("HDEL", key);
+        redisTemplate.opsForHash().delete(key, productId);
+        event.finish(true);
+    }
+}
@@ -0,0 +1,280 @@
+package org.example.testtask.infrastructure.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фонова черга запису завантажених продуктів у Redis (режим {@code cache.write-mode=write-behind}).
+ *
+ * Кожен прийнятий запис отримує порядковий номер. Повторні записи того самого продукту зливаються
+ * в один, а черга пишеться пакетами одним {@code HSET} на пакет. Водяний знак {@link #getDurableSequence()}
+ * гарантує, що всі записи з номером не більшим за нього вже в Redis.
+ * Продукт виходить з черги лише після успішного запису, тож невдалий пакет повторюється з експоненційною затримкою.
+ * При зупинці застосунку черга дописується до кінця (у межах {@code shutdown-timeout}).
+ */
+@Slf4j
+@Component
+public class ProductWriteBehindQueue implements DisposableBean {
+
+    private final RedisProductCache redisProductCache;
+    private final EnrichmentMetrics metrics;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long baseRetryDelayMs;
+    private final long maxRetryDelayMs;
+    private final long shutdownTimeoutMs;
+    private final ScheduledExecutorService flusher;
+    private final Sinks.Many<Long> durableUpdates = Sinks.many().replay().latest();
+
+    // Під монітором this: productId -> останнє незаписане значення з діапазоном його номерів
+    private final LinkedHashMap<String, Pending> pending = new LinkedHashMap<>();
+    private long acceptedSequence;
+    private long durableSequence;
+
+    // Лише з потоку флашера
+    private long retryDelayMs;
+    private long nextAttemptNanos;
+
+    public ProductWriteBehindQueue(RedisProductCache redisProductCache, CacheConfiguration cacheConfig,
+                                   EnrichmentMetrics metrics, MeterRegistry registry) {
+        CacheConfiguration.WriteBehind config = cacheConfig.getWriteBehind();
+        this.redisProductCache = redisProductCache;
+        this.metrics = metrics;
+        this.enabled = cacheConfig.getWriteMode() == CacheConfiguration.WriteMode.WRITE_BEHIND;
+        this.capacity = Math.max(1, config.getQueueCapacity());
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.baseRetryDelayMs = Math.max(1, cacheConfig.getRetryDelayMs());
+        this.maxRetryDelayMs = Math.max(baseRetryDelayMs, config.getMaxRetryDelay().toMillis());
+        this.shutdownTimeoutMs = config.getShutdownTimeout().toMillis();
+        this.retryDelayMs = baseRetryDelayMs;
+        durableUpdates.tryEmitNext(0L);
+        if (!enabled) {
+            this.flusher = null;
+            return;
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, config.getFlushInterval().toMillis());
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        Gauge.builder("products.writebehind.pending", this, ProductWriteBehindQueue::getPendingCount)
+                .description("Products accepted but not yet written to Redis")
+                .register(registry);
+        Gauge.builder("products.writebehind.lag", this, queue -> queue.getAcceptedSequence() - queue.getDurableSequence())
+                .description("Accepted product writes above the durability watermark")
+                .register(registry);
+        log.info("Product write-behind enabled: batch {}, capacity {}, flush every {} ms", batchSize, capacity, interval);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Приймає продукти в чергу і повертає номер останнього з них.
+     * Черга ніколи не перевищує {@code queue-capacity} різних продуктів: що не вмістилося, чекає,
+     * доки флашер звільнить місце, тож велике завантаження підтверджується лише після запису свого хвоста.
+     */
+    public Mono<Long> enqueue(Collection<Product> products) {
+        if (!enabled) {
+            return Mono.error(new IllegalStateException("Write-behind is disabled (cache.write-mode=write-through)"));
+        }
+        List<Product> upload = List.copyOf(products);
+        int[] offered = {0};
+        return Mono.defer(() -> {
+                    long sequence = offer(upload, offered);
+                    if (offered[0] == upload.size()) {
+                        return Mono.just(sequence);
+                    }
+                    log.debug("Write-behind queue is full, {} of {} products wait for space",
+                            upload.size() - offered[0], upload.size());
+                    flusher.execute(this::flush);
+                    return awaitCapacity().then(Mono.<Long>empty());
+                })
+                // Порожній результат означає "черга повна": після звільнення місця пропонуємо решту
+                .repeatWhenEmpty(Integer.MAX_VALUE, attempts -> attempts);
+    }
+
+    /**
+     * Ставить у чергу продукти, починаючи з {@code offered[0]}, поки є місце; оновлення продукту,
+     * що вже чекає, місця не займає.
+     *
+     * @return номер останнього прийнятого запису
+     */
+    private synchronized long offer(List<Product> products, int[] offered) {
+        while (offered[0] < products.size()) {
+            Product product = products.get(offered[0]);
+            if (pending.size() >= capacity && !pending.containsKey(product.getProductId())) {
+                break;
+            }
+            long next = ++acceptedSequence;
+            // Повторний запис продукту зливається з тим, що вже чекає, і зберігає його перший номер
+            pending.merge(product.getProductId(), new Pending(product, next, next),
+                    (queued, latest) -> new Pending(product, queued.firstSequence(), next));
+            offered[0]++;
+        }
+        return acceptedSequence;
+    }
+
+    /**
+     * Завершується, щойно в черзі є місце; водяний знак рухається саме тоді, коли пакет виходить з черги.
+     */
+    private Mono<Void> awaitCapacity() {
+        return durableUpdates.asFlux()
+                .filter(durable -> getPendingCount() < capacity)
+                .next()
+                .then();
+    }
+
+    /**
+     * Завершується, коли водяний знак досягає {@code sequence}.
+     */
+    public Mono<Void> awaitDurable(long sequence) {
+        return durableUpdates.asFlux()
+                .filter(durable -> durable >= sequence)
+                .next()
+                .then();
+    }
+
+    /**
+     * Ініціює негайний запис і чекає, доки в Redis потрапить усе прийняте на цей момент.
+     */
+    public Mono<Void> flushNow() {
+        if (!enabled) {
+            return Mono.empty();
+        }
+        long sequence = getAcceptedSequence();
+        flusher.execute(this::flush);
+        return awaitDurable(sequence);
+    }
+
+    public synchronized long getAcceptedSequence() {
+        return acceptedSequence;
+    }
+
+    public synchronized long getDurableSequence() {
+        return durableSequence;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private void flush() {
+        if (System.nanoTime() < nextAttemptNanos) {
+            return;
+        }
+        while (writeNextBatch()) {
+            // Пишемо, доки черга не спорожніє або Redis не відмовить
+        }
+    }
+
+    /**
+     * @return {@code true}, якщо пакет записано і варто брати наступний
+     */
+    private boolean writeNextBatch() {
+        List<Map.Entry<String, Pending>> batch = new ArrayList<>(batchSize);
+        synchronized (this) {
+            Iterator<Map.Entry<String, Pending>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, Pending> entry = iterator.next();
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        Map<String, Product> products = new LinkedHashMap<>(batch.size() * 2);
+        batch.forEach(entry -> products.put(entry.getKey(), entry.getValue().product()));
+        try {
+            redisProductCache.saveProductBatch(products);
+            // Інші вузли перечитують каталог за версією, тож піднімаємо її лише після запису продуктів
+            redisProductCache.incrementCatalogVersion();
+        } catch (Exception e) {
+            // Записи не виймались з черги, тож наступна спроба візьме той самий пакет
+            metrics.redisError();
+            log.warn("Write-behind batch of {} products failed, retrying in {} ms: {}",
+                    batch.size(), retryDelayMs, e.getMessage());
+            nextAttemptNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelayMs);
+            retryDelayMs = Math.min(retryDelayMs * 2, maxRetryDelayMs);
+            return false;
+        }
+        retryDelayMs = baseRetryDelayMs;
+        nextAttemptNanos = 0;
+        advanceWatermark(batch);
+        return true;
+    }
+
+    private synchronized void advanceWatermark(List<Map.Entry<String, Pending>> written) {
+        for (Map.Entry<String, Pending> entry : written) {
+            Pending current = pending.get(entry.getKey());
+            if (current == null) {
+                // Запис уже зняв інший прохід флашу
+                continue;
+            }
+            if (current.lastSequence() == entry.getValue().lastSequence()) {
+                pending.remove(entry.getKey());
+            } else {
+                // Поки пакет летів, продукт оновили знову: незаписаним лишається все після записаного номера
+                pending.put(entry.getKey(),
+                        new Pending(current.product(), entry.getValue().lastSequence() + 1, current.lastSequence()));
+            }
+        }
+        long oldestPending = Long.MAX_VALUE;
+        for (Pending entry : pending.values()) {
+            oldestPending = Math.min(oldestPending, entry.firstSequence());
+        }
+        durableSequence = pending.isEmpty() ? acceptedSequence : oldestPending - 1;
+        durableUpdates.tryEmitNext(durableSequence);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        if (!flusher.awaitTermination(shutdownTimeoutMs, TimeUnit.MILLISECONDS)) {
+            // Флашер ще пише пакет; дописувати паралельно з ним не можна, тож лише звітуємо про втрати
+            log.error("Write-behind flusher did not stop within {} ms, {} products not written to Redis",
+                    shutdownTimeoutMs, getPendingCount());
+            return;
+        }
+        while (getPendingCount() > 0 && System.nanoTime() < deadline) {
+            if (!writeNextBatch() && getPendingCount() > 0) {
+                Thread.sleep(Math.min(retryDelayMs, Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))));
+            }
+        }
+        int lost = getPendingCount();
+        if (lost > 0) {
+            log.error("Write-behind stopped with {} products not written to Redis (durable up to #{} of #{})",
+                    lost, getDurableSequence(), getAcceptedSequence());
+        } else {
+            log.info("Write-behind flushed on shutdown, durable up to #{}", getDurableSequence());
+        }
+    }
+
+    private record Pending(Product product, long firstSequence, long lastSequence) {
+    }
+}
@@ -3,14 +3,25 @@ package org.example.testtask.infrastructure.cache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.jfr.RedisCommandEvent;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -21,36 +32,53 @@ public class RedisProductCache {
     private static final String CACHE_PREFIX = "product:";
     private static final String LOCK_PREFIX = "lock:product:";
     private static final String PRODUCTS_KEY = "products";
+    private static final String CATALOG_VERSION_KEY = "products:version";
 
 
     private final RedisTemplate<String, Object> redisTemplate;
     private final CacheConfiguration cacheConfig;
+    private final EnrichmentMetrics metrics;
+    private final BlockingRedisExecutor redisExecutor;
+    private final ProductBuckets productBuckets;
     private final Map<String, Product> localCache = new ConcurrentHashMap<>();
 
 
     public void cacheProduct(Product product) {
+        if (isBucketed()) {
+            try {
+                // HSET одного поля атомарний, тож блокування не потрібне
+                productBuckets.put(product.getProductId(), product.getProductName());
+            } catch (Exception e) {
+                metrics.redisError();
+                log.error("Error caching product: {}", product.getProductId(), e);
+            }
+            localCache.put(product.getProductId(), product);
+            return;
+        }
         String key = CACHE_PREFIX + product.getProductId();
         String lockKey = LOCK_PREFIX + product.getProductId();
 
         try {
-            boolean locked = Boolean.TRUE.equals(redisTemplate.opsForValue()
-                    .setIfAbsent(lockKey, "locked", 5, TimeUnit.SECONDS));
+            boolean locked = acquireLock(lockKey, 5);
 
             if (locked) {
                 try {
+                    RedisCommandEvent event = RedisCommandEvent.start("SET", key);
                     redisTemplate.opsForValue().set(
                             key,
                             product,
                             cacheConfig.getTimeoutHours(),
                             TimeUnit.HOURS
                     );
+                    event.finish(true);
                     localCache.put(product.getProductId(), product);
                     log.debug("Cached product: {}", product.getProductId());
                 } finally {
-                    redisTemplate.delete(lockKey);
+                    releaseLock(lockKey);
                 }
             }
         } catch (Exception e) {
+            metrics.redisError();
             log.error("Error caching product: {}", product.getProductId(), e);
             localCache.put(product.getProductId(), product);
         }
@@ -59,86 +87,424 @@ public class RedisProductCache {
 
     public Optional<Product> getProduct(String productId) {
         // First check local cache
+        long start = System.nanoTime();
         Product localProduct = localCache.get(productId);
+        metrics.localLookup(System.nanoTime() - start, localProduct != null);
         if (localProduct != null) {
             log.debug("Product {} found in local cache", productId);
             return Optional.of(localProduct);
         }
 
+        try {
+            return fetchProduct(productId);
+        } catch (Exception e) {
+            metrics.redisError();
+            log.error("Error retrieving product from cache: {}", productId, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Неблокуюча версія {@link #getProduct}: звернення до Redis виконується через {@link BlockingRedisExecutor}.
+     * Збій Redis повторюється до {@code maxRetries} разів, після чого продукт вважається відсутнім.
+     */
+    public Mono<Product> getProductReactive(String productId) {
+        long start = System.nanoTime();
+        Product localProduct = localCache.get(productId);
+        metrics.localLookup(System.nanoTime() - start, localProduct != null);
+        if (localProduct != null) {
+            // Попадання в локальний кеш не варте перемикання потоку
+            return Mono.just(localProduct);
+        }
+        return redisExecutor.call(() -> fetchProduct(productId).orElse(null))
+                .doOnError(e -> metrics.redisError())
+                .retryWhen(redisRetry())
+                .onErrorResume(e -> {
+                    log.error("Error in reactive cache access: {}", productId, e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Читає продукт з Redis повз локальний кеш; на відміну від {@link #getProduct}, збій Redis не ковтає.
+     */
+    private Optional<Product> fetchProduct(String productId) {
+        if (isBucketed()) {
+            return getBucketedProduct(productId);
+        }
         String key = CACHE_PREFIX + productId;
+        RedisCommandEvent event = RedisCommandEvent.start("GET", key);
+        long start = System.nanoTime();
+        Object value = redisTemplate.opsForValue().get(key);
+        metrics.redisLookup(System.nanoTime() - start, value instanceof Product);
+        event.finish(value instanceof Product);
+        if (value instanceof Product product) {
+            // Update local cache
+            localCache.put(productId, product);
+            log.debug("Product {} found in Redis cache", productId);
+            return Optional.of(product);
+        }
+        return Optional.empty();
+    }
 
+    private Retry redisRetry() {
+        return Retry.fixedDelay(cacheConfig.getMaxRetries(), Duration.ofMillis(cacheConfig.getRetryDelayMs()));
+    }
+
+    /**
+     * Пакетна версія {@link #getProduct}: спершу локальний кеш, решта ID — одним {@code MGET}.
+     *
+     * @return знайдені продукти за ID; відсутні ID у мапі не представлені
+     */
+    public Map<String, Product> getProducts(Collection<String> productIds) {
+        Map<String, Product> found = new HashMap<>(productIds.size() * 2);
+        Set<String> missing = collectLocal(productIds, found);
+        if (missing.isEmpty()) {
+            return found;
+        }
         try {
-            Object value = redisTemplate.opsForValue().get(key);
+            found.putAll(fetchProducts(missing));
+        } catch (Exception e) {
+            metrics.redisError();
+            log.error("Error retrieving {} products from cache", missing.size(), e);
+        }
+        return found;
+    }
+
+    /**
+     * Неблокуюча версія {@link #getProducts}; якщо все знайдено локально, потік не перемикається.
+     * Збій Redis повторюється до {@code maxRetries} разів, після чого повертаються лише локальні попадання.
+     */
+    public Mono<Map<String, Product>> getProductsReactive(Collection<String> productIds) {
+        return Mono.defer(() -> {
+            Map<String, Product> found = new HashMap<>(productIds.size() * 2);
+            Set<String> missing = collectLocal(productIds, found);
+            if (missing.isEmpty()) {
+                return Mono.just(found);
+            }
+            return redisExecutor.call(() -> fetchProducts(missing))
+                    .doOnError(e -> metrics.redisError())
+                    .retryWhen(redisRetry())
+                    .map(remote -> {
+                        found.putAll(remote);
+                        return found;
+                    })
+                    .onErrorResume(e -> {
+                        log.error("Error in reactive multi-get for {} products", missing.size(), e);
+                        return Mono.just(found);
+                    });
+        });
+    }
+
+    /**
+     * Розкладає ID на знайдені в локальному кеші (додаються в {@code found}) і ті, що треба читати з Redis.
+     */
+    private Set<String> collectLocal(Collection<String> productIds, Map<String, Product> found) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String productId : productIds) {
+            long start = System.nanoTime();
+            Product localProduct = localCache.get(productId);
+            metrics.localLookup(System.nanoTime() - start, localProduct != null);
+            if (localProduct != null) {
+                found.put(productId, localProduct);
+            } else {
+                missing.add(productId);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Читає продукти з Redis одним {@code MGET} повз локальний кеш; збій Redis не ковтає.
+     */
+    private Map<String, Product> fetchProducts(Set<String> productIds) {
+        if (isBucketed()) {
+            return getBucketedProducts(productIds);
+        }
+        List<String> remoteIds = new ArrayList<>(productIds);
+        List<String> keys = remoteIds.stream().map(id -> CACHE_PREFIX + id).toList();
+        Map<String, Product> found = new HashMap<>(keys.size() * 2);
+
+        RedisCommandEvent event = RedisCommandEvent.start("MGET", keys.get(0), keys.size());
+        long start = System.nanoTime();
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys);
+        long perKey = (System.nanoTime() - start) / keys.size();
+        for (int i = 0; i < remoteIds.size(); i++) {
+            Object value = values == null || i >= values.size() ? null : values.get(i);
+            metrics.redisLookup(perKey, value instanceof Product);
             if (value instanceof Product product) {
-                // Update local cache
-                localCache.put(productId, product);
-                log.debug("Product {} found in Redis cache", productId);
-                return Optional.of(product);
+                localCache.put(product.getProductId(), product);
+                found.put(remoteIds.get(i), product);
             }
-        } catch (Exception e) {
-            log.error("Error retrieving product from cache: {}", productId, e);
         }
+        event.finish(!found.isEmpty());
+        log.debug("Multi-get resolved {} of {} products from Redis", found.size(), keys.size());
+        return found;
+    }
 
-        return Optional.empty();
+    public Mono<Void> cacheProductReactive(Product product) {
+        return redisExecutor.run(() -> cacheProduct(product));
     }
 
-    public Mono<Product> getProductReactive(String productId) {
-        return Mono.fromSupplier(() -> getProduct(productId))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .retryWhen(Retry.fixedDelay(
-                        cacheConfig.getMaxRetries(),
-                        Duration.ofMillis(cacheConfig.getRetryDelayMs())
-                ))
-                .doOnError(e -> log.error("Error in reactive cache access: {}", productId, e));
+    public Mono<Void> bulkCacheReactive(Map<String, Product> products) {
+        return redisExecutor.run(() -> bulkCache(products));
+    }
+
+    /**
+     * Зберігає продукти в каталог Redis (хеш {@code products} або бакети), перемикаючи потік один раз
+     * на весь потік, а не на кожен запис.
+     */
+    public Flux<Product> saveProducts(Flux<Product> products) {
+        return products
+                .publishOn(redisExecutor.getScheduler())
+                .doOnNext(this::saveProduct);
     }
 
     public void invalidateCache(String productId) {
+        if (isBucketed()) {
+            try {
+                productBuckets.remove(productId);
+                localCache.remove(productId);
+            } catch (Exception e) {
+                metrics.redisError();
+                log.error("Error invalidating cache for product: {}", productId, e);
+            }
+            return;
+        }
         String key = CACHE_PREFIX + productId;
         try {
+            RedisCommandEvent event = RedisCommandEvent.start("DEL", key);
             redisTemplate.delete(key);
+            event.finish(true);
             localCache.remove(productId);
             log.debug("Invalidated cache for product: {}", productId);
         } catch (Exception e) {
+            metrics.redisError();
             log.error("Error invalidating cache for product: {}", productId, e);
         }
     }
 
     public void bulkCache(Map<String, Product> products) {
+        if (isBucketed()) {
+            try {
+                productBuckets.putAll(names(products));
+                log.debug("Bulk cached {} products into buckets", products.size());
+            } catch (Exception e) {
+                metrics.redisError();
+                log.error("Error in bulk caching", e);
+            }
+            localCache.putAll(products);
+            return;
+        }
         String lockKey = LOCK_PREFIX + "bulk";
 
         try {
-            boolean locked = Boolean.TRUE.equals(redisTemplate.opsForValue()
-                    .setIfAbsent(lockKey, "locked", 30, TimeUnit.SECONDS));
+            boolean locked = acquireLock(lockKey, 30);
 
             if (locked) {
                 try {
                     products.forEach((id, product) -> {
                         String key = CACHE_PREFIX + id;
+                        RedisCommandEvent event = RedisCommandEvent.start("SET", key);
                         redisTemplate.opsForValue().set(
                                 key,
                                 product,
                                 cacheConfig.getTimeoutHours(),
                                 TimeUnit.HOURS
                         );
+                        event.finish(true);
                     });
                     localCache.putAll(products);
                     log.debug("Bulk cached {} products", products.size());
                 } finally {
-                    redisTemplate.delete(lockKey);
+                    releaseLock(lockKey);
                 }
             }
         } catch (Exception e) {
+            metrics.redisError();
             log.error("Error in bulk caching", e);
             localCache.putAll(products);
         }
     }
 
     public void saveProduct(Product product) {
+        if (isBucketed()) {
+            productBuckets.put(product.getProductId(), product.getProductName());
+            return;
+        }
+        RedisCommandEvent event = RedisCommandEvent.start("HSET", PRODUCTS_KEY);
         redisTemplate.opsForHash().put(PRODUCTS_KEY, product.getProductId(), product);
+        event.finish(true);
+    }
+
+    /**
+     * Записує пакет продуктів у хеш {@code products} однією командою {@code HSET} з багатьма полями,
+     * а в layout=bucketed — у бакети одним викликом {@link ProductBuckets#putAll}.
+     */
+    public void saveProductBatch(Map<String, Product> products) {
+        if (isBucketed()) {
+            productBuckets.putAll(names(products));
+            return;
+        }
+        RedisCommandEvent event = RedisCommandEvent.start("HSET", PRODUCTS_KEY, products.size());
+        redisTemplate.opsForHash().putAll(PRODUCTS_KEY, products);
+        event.finish(true);
+    }
+
+    /**
+     * Поточна версія каталогу в Redis; {@code INCRBY 0} не змінює лічильник і не падає на відсутньому ключі.
+     */
+    public long getCatalogVersion() {
+        RedisCommandEvent event = RedisCommandEvent.start("INCRBY", CATALOG_VERSION_KEY);
+        Long version = redisTemplate.opsForValue().increment(CATALOG_VERSION_KEY, 0);
+        event.finish(version != null);
+        return version == null ? 0 : version;
+    }
+
+    public long incrementCatalogVersion() {
+        RedisCommandEvent event = RedisCommandEvent.start("INCR", CATALOG_VERSION_KEY);
+        Long version = redisTemplate.opsForValue().increment(CATALOG_VERSION_KEY);
+        event.finish(version != null);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Чи є в Redis хоч один продукт: {@code HLEN} хешу {@code products}, а в layout=bucketed — до першого
+     * непорожнього бакета.
+     */
+    public boolean hasProducts() {
+        if (isBucketed()) {
+            for (int bucket = 0; bucket < productBuckets.bucketCount(); bucket++) {
+                if (productBuckets.size(bucket) > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        RedisCommandEvent event = RedisCommandEvent.start("HLEN", PRODUCTS_KEY);
+        Long size = redisTemplate.opsForHash().size(PRODUCTS_KEY);
+        event.finish(size != null);
+        return size != null && size > 0;
+    }
+
+    /**
+     * Читає весь каталог з хешу {@code products}, а в layout=bucketed — по одному бакету за виклик.
+     */
+    public Map<String, Product> loadAllProducts() {
+        if (isBucketed()) {
+            Map<String, Product> products = new HashMap<>();
+            for (int bucket = 0; bucket < productBuckets.bucketCount(); bucket++) {
+                productBuckets.entries(bucket).forEach((id, name) -> products.put(id, new Product(id, name)));
+            }
+            return products;
+        }
+        RedisCommandEvent event = RedisCommandEvent.start("HGETALL", PRODUCTS_KEY);
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(PRODUCTS_KEY);
+        event.finish(!entries.isEmpty());
+        Map<String, Product> products = new HashMap<>(entries.size() * 2);
+        entries.values().forEach(value -> {
+            if (value instanceof Product product) {
+                products.put(product.getProductId(), product);
+            }
+        });
+        return products;
+    }
+
+    /**
+     * Стрімить каталог з хешу {@code products} курсором {@code HSCAN} по {@code count} полів за виклик.
+     * Наступна сторінка читається лише на запит знизу і на потоці Redis-виконавця, тож великий хеш
+     * не блокує Redis одним {@code HGETALL} і не тримається в пам'яті цілком.
+     * Якщо хеш змінює розмір під час обходу, Redis може повторно віддати частину полів.
+     * У layout=bucketed сторінкою є один бакет ({@code HGETALL}), а {@code count} не використовується.
+     */
+    public Flux<Product> scanProducts(int count) {
+        Flux<Product> products = isBucketed() ? scanBuckets() : scanProductsHash(count);
+        return products
+                .doOnError(e -> {
+                    metrics.redisError();
+                    log.error("Error scanning products hash", e);
+                })
+                .subscribeOn(redisExecutor.getScheduler());
+    }
+
+    private Flux<Product> scanProductsHash(int count) {
+        ScanOptions options = ScanOptions.scanOptions().count(count).build();
+        return Flux.using(
+                        () -> redisTemplate.<Object, Object>opsForHash().scan(PRODUCTS_KEY, options),
+                        cursor -> Flux.fromIterable(() -> cursor),
+                        Cursor::close)
+                .handle((entry, sink) -> {
+                    if (entry.getValue() instanceof Product product) {
+                        sink.next(product);
+                    }
+                });
+    }
+
+    private Flux<Product> scanBuckets() {
+        return Flux.range(0, productBuckets.bucketCount())
+                .concatMapIterable(bucket -> productBuckets.entries(bucket).entrySet().stream()
+                        .map(entry -> new Product(entry.getKey(), entry.getValue()))
+                        .toList(), 1);
+    }
+
+    private static Map<String, String> names(Map<String, Product> products) {
+        Map<String, String> names = new HashMap<>(products.size() * 2);
+        products.forEach((id, product) -> names.put(id, product.getProductName()));
+        return names;
+    }
+
+    /**
+     * Видає {@code true}, якщо продукт уже є в локальному кеші (без звернення до Redis).
+     */
+    public boolean isCachedLocally(String productId) {
+        return localCache.containsKey(productId);
     }
 
+    private boolean isBucketed() {
+        return cacheConfig.getLayout() == CacheConfiguration.Layout.BUCKETED;
+    }
 
+    private Optional<Product> getBucketedProduct(String productId) {
+        long start = System.nanoTime();
+        String name = productBuckets.get(productId);
+        metrics.redisLookup(System.nanoTime() - start, name != null);
+        if (name == null) {
+            return Optional.empty();
+        }
+        Product product = new Product(productId, name);
+        localCache.put(productId, product);
+        return Optional.of(product);
+    }
 
+    private Map<String, Product> getBucketedProducts(Collection<String> productIds) {
+        Map<String, Product> found = new HashMap<>(productIds.size() * 2);
+        long start = System.nanoTime();
+        Map<String, String> names = productBuckets.getAll(productIds);
+        long perKey = (System.nanoTime() - start) / productIds.size();
+        for (String productId : productIds) {
+            String name = names.get(productId);
+            metrics.redisLookup(perKey, name != null);
+            if (name != null) {
+                Product product = new Product(productId, name);
+                localCache.put(productId, product);
+                found.put(productId, product);
+            }
+        }
+        log.debug("Bucketed multi-get resolved {} of {} products from Redis", found.size(), productIds.size());
+        return found;
+    }
 
+    private boolean acquireLock(String lockKey, long ttlSeconds) {
+        RedisCommandEvent event = RedisCommandEvent.start("SETNX", lockKey);
+        boolean locked = Boolean.TRUE.equals(redisTemplate.opsForValue()
+                .setIfAbsent(lockKey, "locked", ttlSeconds, TimeUnit.SECONDS));
+        event.finish(locked);
+        return locked;
+    }
+
+    private void releaseLock(String lockKey) {
+        RedisCommandEvent event = RedisCommandEvent.start("DEL", lockKey);
+        redisTemplate.delete(lockKey);
+        event.finish(true);
+    }
 }
\ No newline at end of file
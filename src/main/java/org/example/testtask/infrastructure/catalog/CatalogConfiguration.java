@@ -0,0 +1,38 @@
+package org.example.testtask.infrastructure.catalog;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "enrichment.catalog")
+public class CatalogConfiguration {
+    private boolean snapshotEnabled = true;
+    private Path snapshotFile = Path.of("data", "product-catalog.bin");
+    private boolean verifyOnStartup = true;
+    private Preload preload = new Preload();
+    // max-age для відповідей пошуку продукту; 0 — клієнт щоразу ревалідує через If-None-Match
+    private Duration lookupMaxAge = Duration.ZERO;
+    // Продуктів на сторінку HSCAN і на чанк відповіді експорту каталогу
+    private int exportBatchSize = 1000;
+
+    public enum PreloadSource {
+        // Засіяти каталог з CSV-файлу, якщо на диску немає знімка
+        FILE,
+        // Взяти каталог лише з Redis
+        REDIS,
+        NONE
+    }
+
+    @Data
+    public static class Preload {
+        private PreloadSource source = PreloadSource.FILE;
+        private String file = "classpath:largeSizeProduct.csv";
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int chunkBytes = 256 * 1024;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.testtask.infrastructure.catalog;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Зберігає знімок каталогу на локальний диск і відображає його в пам'ять при старті.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogSnapshotStore {
+
+    private final CatalogConfiguration config;
+
+    public Optional<ProductCatalog> load() {
+        Path file = config.getSnapshotFile();
+        if (!config.isSnapshotEnabled() || file == null || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Відображення лишається дійсним і після закриття каналу
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(ProductCatalog.read(mapped));
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Ignoring unreadable catalog snapshot {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Атомарно замінює файл знімка: спершу пише тимчасовий файл поруч, потім переміщує його.
+     */
+    public void save(ProductCatalog catalog) {
+        Path file = config.getSnapshotFile();
+        if (!config.isSnapshotEnabled() || file == null) {
+            return;
+        }
+        Path directory = file.toAbsolutePath().getParent();
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer content = catalog.asByteBuffer();
+                while (content.hasRemaining()) {
+                    channel.write(content);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved catalog snapshot v{} ({} products) to {}", catalog.getVersion(), catalog.size(), file);
+        } catch (IOException e) {
+            log.warn("Could not save catalog snapshot to {}: {}", file, e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // Тимчасовий файл прибере наступний запис
+                }
+            }
+        }
+    }
+}
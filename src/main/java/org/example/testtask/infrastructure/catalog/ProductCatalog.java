@@ -0,0 +1,314 @@
+package org.example.testtask.infrastructure.catalog;
+
+import org.example.testtask.domain.model.Product;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Незмінний знімок каталогу продуктів у компактному бінарному форматі.
+ * Той самий буфер обслуговує пошук і в пам'яті, і напряму з відображеного файлу,
+ * тому старт із диска не потребує десеріалізації.
+ *
+ * Назви продуктів закодовані словником: кожна унікальна назва зберігається один раз,
+ * а запис продукту містить лише її код. Декодовані назви кешуються, тому пошук не алокує рядків.
+ *
+ * <pre>
+ * header:  magic:int, format:int, version:long, count:int, slots:int, crc32:int, names:int
+ * slots:   [hash:int, entryOffset:int] * slots   (відкрита адресація, -1 = порожньо)
+ * names:   [nameOffset:int] * names
+ * entries: [idLength:u16, id:utf8, nameCode:int] * count
+ * strings: [nameLength:u16, name:utf8] * names
+ * </pre>
+ */
+public final class ProductCatalog {
+
+    private static final int MAGIC = 0x54544350; // "TTCP"
+    private static final int FORMAT = 2;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 8;
+    private static final int CRC_OFFSET = 24;
+    private static final int NAMES_OFFSET = 28;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private static final ProductCatalog EMPTY = build(0, List.of());
+
+    private final ByteBuffer buffer;
+    private final long version;
+    private final int size;
+    private final int mask;
+    private final int namesTable;
+    private final String[] names;
+
+    private ProductCatalog(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.version = buffer.getLong(8);
+        this.size = buffer.getInt(16);
+        this.mask = buffer.getInt(20) - 1;
+        this.namesTable = HEADER_BYTES + (mask + 1) * SLOT_BYTES;
+        this.names = new String[buffer.getInt(NAMES_OFFSET)];
+    }
+
+    public static ProductCatalog empty() {
+        return EMPTY;
+    }
+
+    public static ProductCatalog build(long version, Collection<Product> products) {
+        Map<String, Product> unique = new LinkedHashMap<>();
+        for (Product product : products) {
+            unique.put(product.getProductId(), product);
+        }
+
+        StringDictionary dictionary = new StringDictionary(Integer.MAX_VALUE);
+        List<byte[]> ids = new ArrayList<>(unique.size());
+        int[] nameCodes = new int[unique.size()];
+        long length = HEADER_BYTES;
+        for (Product product : unique.values()) {
+            byte[] id = encode(product.getProductId());
+            nameCodes[ids.size()] = dictionary.encode(product.getProductName() == null ? "" : product.getProductName());
+            ids.add(id);
+            length += 2 + id.length + 4;
+        }
+        List<byte[]> nameBytes = new ArrayList<>(dictionary.size());
+        for (int code = 0; code < dictionary.size(); code++) {
+            byte[] name = encode(dictionary.decode(code));
+            nameBytes.add(name);
+            length += 4 + 2 + name.length;
+        }
+
+        int slots = Integer.highestOneBit(Math.max(2, ids.size() * 2 - 1)) << 1;
+        length += (long) slots * SLOT_BYTES;
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Catalog too large: " + length + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.BIG_ENDIAN);
+        buffer.putInt(0, MAGIC).putInt(4, FORMAT).putLong(8, version)
+                .putInt(16, ids.size()).putInt(20, slots).putInt(NAMES_OFFSET, nameBytes.size());
+        for (int slot = 0; slot < slots; slot++) {
+            buffer.putInt(HEADER_BYTES + slot * SLOT_BYTES + 4, -1);
+        }
+
+        int namesTable = HEADER_BYTES + slots * SLOT_BYTES;
+        int offset = namesTable + nameBytes.size() * 4;
+        int index = 0;
+        for (String productId : unique.keySet()) {
+            int hash = productId.hashCode();
+            int slot = spread(hash) & (slots - 1);
+            while (buffer.getInt(HEADER_BYTES + slot * SLOT_BYTES + 4) >= 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            buffer.putInt(HEADER_BYTES + slot * SLOT_BYTES, hash);
+            buffer.putInt(HEADER_BYTES + slot * SLOT_BYTES + 4, offset);
+
+            byte[] id = ids.get(index);
+            buffer.putShort(offset, (short) id.length).put(offset + 2, id);
+            offset += 2 + id.length;
+            buffer.putInt(offset, nameCodes[index++]);
+            offset += 4;
+        }
+        for (int code = 0; code < nameBytes.size(); code++) {
+            byte[] name = nameBytes.get(code);
+            buffer.putInt(namesTable + code * 4, offset);
+            buffer.putShort(offset, (short) name.length).put(offset + 2, name);
+            offset += 2 + name.length;
+        }
+        buffer.putInt(CRC_OFFSET, checksum(buffer));
+        return new ProductCatalog(buffer.asReadOnlyBuffer());
+    }
+
+    /**
+     * Перевіряє заголовок і контрольну суму та обгортає буфер без копіювання.
+     */
+    public static ProductCatalog read(ByteBuffer source) {
+        ByteBuffer buffer = source.duplicate().order(ByteOrder.BIG_ENDIAN);
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a product catalog snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT) {
+            throw new IllegalArgumentException("Unsupported catalog format " + buffer.getInt(4));
+        }
+        int slots = buffer.getInt(20);
+        if (slots <= 0 || Integer.bitCount(slots) != 1 || buffer.getInt(NAMES_OFFSET) < 0
+                || HEADER_BYTES + (long) slots * SLOT_BYTES + buffer.getInt(NAMES_OFFSET) * 4L > buffer.limit()) {
+            throw new IllegalArgumentException("Corrupt catalog slot table");
+        }
+        if (buffer.getInt(CRC_OFFSET) != checksum(buffer)) {
+            throw new IllegalArgumentException("Catalog checksum mismatch");
+        }
+        return new ProductCatalog(buffer);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * CRC32 вмісту знімка: відрізняє каталоги з однаковою версією, але різними даними
+     * (наприклад, засіяні з різних CSV).
+     */
+    public int getChecksum() {
+        return buffer.getInt(CRC_OFFSET);
+    }
+
+    public String findProductName(String productId) {
+        int entry = findEntry(productId);
+        if (entry < 0) {
+            return null;
+        }
+        int idLength = Short.toUnsignedInt(buffer.getShort(entry));
+        return name(buffer.getInt(entry + 2 + idLength));
+    }
+
+    /**
+     * Кількість унікальних назв у словнику каталогу.
+     */
+    public int distinctNames() {
+        return names.length;
+    }
+
+    public Optional<Product> findProduct(String productId) {
+        String name = findProductName(productId);
+        return name == null ? Optional.empty() : Optional.of(new Product(productId, name));
+    }
+
+    /**
+     * Лінивий обхід записів у порядку знімка: {@link Product} створюється лише для поточного запису,
+     * тож каталог можна стрімити без копії в пам'яті.
+     */
+    public Iterator<Product> iterator() {
+        return new Iterator<>() {
+            private int index;
+            private int offset = namesTable + names.length * 4;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public Product next() {
+                if (index >= size) {
+                    throw new NoSuchElementException();
+                }
+                String id = readString(offset);
+                offset += 2 + Short.toUnsignedInt(buffer.getShort(offset));
+                String name = name(buffer.getInt(offset));
+                offset += 4;
+                index++;
+                return new Product(id, name);
+            }
+        };
+    }
+
+    public void forEach(Consumer<Product> action) {
+        iterator().forEachRemaining(action);
+    }
+
+    /**
+     * Вміст знімка для запису на диск.
+     */
+    public ByteBuffer asByteBuffer() {
+        return buffer.duplicate().position(0);
+    }
+
+    private int findEntry(String productId) {
+        if (productId == null) {
+            return -1;
+        }
+        int hash = productId.hashCode();
+        int slot = spread(hash) & mask;
+        while (true) {
+            int position = HEADER_BYTES + slot * SLOT_BYTES;
+            int entry = buffer.getInt(position + 4);
+            if (entry < 0) {
+                return -1;
+            }
+            if (buffer.getInt(position) == hash && idEquals(entry, productId)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private boolean idEquals(int entry, String productId) {
+        int length = Short.toUnsignedInt(buffer.getShort(entry));
+        if (length == productId.length()) {
+            // Швидкий шлях для ASCII-ідентифікаторів без кодування запиту
+            boolean ascii = true;
+            for (int i = 0; i < length; i++) {
+                char c = productId.charAt(i);
+                if (c >= 0x80) {
+                    ascii = false;
+                    break;
+                }
+                if (buffer.get(entry + 2 + i) != (byte) c) {
+                    return false;
+                }
+            }
+            if (ascii) {
+                return true;
+            }
+        }
+        byte[] id = productId.getBytes(StandardCharsets.UTF_8);
+        if (id.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(entry + 2 + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String name(int code) {
+        String name = names[code];
+        if (name == null) {
+            // Гонка тут безпечна: у гіршому разі та сама назва декодується двічі
+            name = readString(buffer.getInt(namesTable + code * 4));
+            names[code] = name;
+        }
+        return name;
+    }
+
+    private String readString(int offset) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort(offset))];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] encode(String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Catalog value longer than " + MAX_STRING_BYTES + " bytes");
+        }
+        return bytes;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int checksum(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(CRC_OFFSET));
+        crc.update(buffer.duplicate().position(CRC_OFFSET + 4));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.testtask.infrastructure.catalog;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словник рядків з невеликою кардинальністю (назви продуктів, валюти): кожне значення
+ * зберігається один раз і отримує цілочисельний код.
+ * Після досягнення {@code capacity} нові значення не додаються і повертаються як є,
+ * тож випадковий потік унікальних рядків не роздуває словник.
+ */
+public final class StringDictionary {
+
+    public static final int NO_CODE = -1;
+
+    private final int capacity;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    // values публікується раніше за size, тож читач без блокування бачить усі коди < size
+    private volatile String[] values = new String[8];
+    private volatile int size;
+
+    public StringDictionary(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Повертає канонічний екземпляр рядка, а якщо словник заповнений — сам рядок.
+     */
+    public String intern(String value) {
+        int code = encode(value);
+        return code == NO_CODE ? value : decode(code);
+    }
+
+    /**
+     * Код значення; нове значення отримує наступний вільний код.
+     *
+     * @return код або {@link #NO_CODE}, якщо значення {@code null} чи словник заповнений
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NO_CODE;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    public String decode(int code) {
+        return code >= 0 && code < size ? values[code] : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private synchronized int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int code = size;
+        if (code >= capacity) {
+            return NO_CODE;
+        }
+        String[] current = values;
+        if (code == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[code] = value;
+        values = current;
+        size = code + 1;
+        codes.put(value, code);
+        return code;
+    }
+}
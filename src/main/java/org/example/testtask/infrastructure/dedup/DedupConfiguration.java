@@ -0,0 +1,25 @@
+package org.example.testtask.infrastructure.dedup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "enrichment.dedup")
+public class DedupConfiguration {
+
+    public enum Mode {
+        /** Підозрілі дублікати відкидаються. */
+        DROP,
+        /** Дублікати лишаються в потоці, але рахуються і логуються. */
+        REPORT
+    }
+
+    private boolean enabled = false;
+    private Mode mode = Mode.DROP;
+    private double falsePositiveRate = 0.001;
+    private long initialCapacity = 1_000_000;
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+}
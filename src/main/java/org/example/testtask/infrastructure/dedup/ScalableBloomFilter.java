@@ -0,0 +1,144 @@
+package org.example.testtask.infrastructure.dedup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Масштабований фільтр Блума (Almeida et al.): коли поточний шар заповнюється до розрахункової
+ * місткості, додається новий — удвічі більший і з удвічі суворішою ймовірністю хибного спрацювання,
+ * тож сумарна ймовірність не перевищує заданої. Якщо наступний шар не вміщається в ліміт пам'яті,
+ * фільтр перестає рости і дописує в останній шар — точність падає, але пам'ять лишається обмеженою.
+ * <p>
+ * Не потокобезпечний: розрахований на один послідовний потік рядків.
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+    private static final double LN2 = Math.log(2);
+
+    private final long maxBytes;
+    private final List<Layer> layers = new ArrayList<>();
+    private long allocatedBytes;
+    private boolean saturated;
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveRate, long maxBytes) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be in (0, 1): " + falsePositiveRate);
+        }
+        this.maxBytes = maxBytes;
+        long capacity = Math.max(1, initialCapacity);
+        double layerRate = falsePositiveRate * (1 - TIGHTENING);
+        if (Layer.bitsFor(capacity, layerRate) / 8 > maxBytes) {
+            // Навіть перший шар не влазить у ліміт: зменшуємо його місткість, а не порушуємо ліміт
+            capacity = Layer.capacityFor(Math.max(64, maxBytes * 8), layerRate);
+        }
+        add(new Layer(capacity, layerRate));
+    }
+
+    /**
+     * Додає ключ, заданий двома незалежними 64-бітними хешами.
+     *
+     * @return {@code true}, якщо ключ, імовірно, вже траплявся
+     */
+    public boolean putIfAbsent(long hash1, long hash2) {
+        for (Layer layer : layers) {
+            if (layer.mightContain(hash1, hash2)) {
+                return true;
+            }
+        }
+        Layer current = layers.get(layers.size() - 1);
+        if (current.isFull() && !saturated) {
+            long capacity = current.capacity * GROWTH;
+            double layerRate = current.falsePositiveRate * TIGHTENING;
+            if (allocatedBytes + Layer.bitsFor(capacity, layerRate) / 8 <= maxBytes) {
+                current = new Layer(capacity, layerRate);
+                add(current);
+            } else {
+                saturated = true;
+            }
+        }
+        current.put(hash1, hash2);
+        return false;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public int getLayers() {
+        return layers.size();
+    }
+
+    /**
+     * Ліміт пам'яті досягнуто, і фільтр більше не гарантує заданої точності.
+     */
+    public boolean isSaturated() {
+        return saturated;
+    }
+
+    private void add(Layer layer) {
+        layers.add(layer);
+        allocatedBytes += layer.bytes();
+    }
+
+    private static final class Layer {
+
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashes;
+        private final long capacity;
+        private final double falsePositiveRate;
+        private long inserted;
+
+        private Layer(long capacity, double falsePositiveRate) {
+            this.bits = new long[(int) (bitsFor(capacity, falsePositiveRate) >>> 6)];
+            this.bitCount = bits.length * 64L;
+            this.hashes = Math.max(1, (int) Math.round(-Math.log(falsePositiveRate) / LN2));
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        /**
+         * Оптимальний розмір шару в бітах, округлений до цілого слова.
+         */
+        static long bitsFor(long capacity, double falsePositiveRate) {
+            long bitCount = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            return (Math.max(64, bitCount) + 63) & ~63L;
+        }
+
+        static long capacityFor(long bitCount, double falsePositiveRate) {
+            return Math.max(1, (long) (bitCount * LN2 * LN2 / -Math.log(falsePositiveRate)));
+        }
+
+        long bytes() {
+            return bits.length * 8L;
+        }
+
+        boolean isFull() {
+            return inserted >= capacity;
+        }
+
+        boolean mightContain(long hash1, long hash2) {
+            long combined = hash1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(combined, bitCount);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+                combined += hash2;
+            }
+            return true;
+        }
+
+        void put(long hash1, long hash2) {
+            long combined = hash1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(combined, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+                combined += hash2;
+            }
+            inserted++;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.testtask.infrastructure.io;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscription;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Блокуючий {@link InputStream} поверх реактивного тіла запиту.
+ * Вміст кожного буфера копіюється одразу при надходженні, а наступні буфери дозапитуються
+ * лише після прочитання попередніх, тому в пам'яті живе не більше {@code prefetch} чанків.
+ * Читати потрібно з блокуючого потоку (boundedElastic), а не з event loop.
+ */
+public class DataBufferInputStream extends InputStream {
+
+    private static final int DEFAULT_PREFETCH = 4;
+    private static final Object COMPLETE = new Object();
+
+    private final int replenish;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final BodySubscriber subscriber;
+
+    private byte[] chunk;
+    private int position;
+    private int consumed;
+    private boolean finished;
+    private volatile boolean closed;
+
+    public DataBufferInputStream(Publisher<DataBuffer> body) {
+        this(body, DEFAULT_PREFETCH);
+    }
+
+    public DataBufferInputStream(Publisher<DataBuffer> body, int prefetch) {
+        int initialRequest = Math.max(1, prefetch);
+        this.replenish = Math.max(1, initialRequest / 2);
+        this.subscriber = new BodySubscriber(initialRequest);
+        body.subscribe(subscriber);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return chunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, bytes, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return chunk == null ? 0 : chunk.length - position;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        subscriber.cancel();
+        queue.clear();
+        // Розблоковуємо читача, якщо він чекає на наступний чанк
+        queue.offer(COMPLETE);
+    }
+
+    private boolean fill() throws IOException {
+        while (chunk == null || position == chunk.length) {
+            if (finished || closed) {
+                return false;
+            }
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for request body");
+            }
+            if (item == COMPLETE) {
+                finished = true;
+                return false;
+            }
+            if (item instanceof Throwable error) {
+                finished = true;
+                throw new IOException("Failed to read request body", error);
+            }
+            chunk = (byte[]) item;
+            position = 0;
+            if (++consumed == replenish) {
+                consumed = 0;
+                subscriber.request(replenish);
+            }
+        }
+        return true;
+    }
+
+    private final class BodySubscriber extends BaseSubscriber<DataBuffer> {
+
+        private final int initialRequest;
+
+        private BodySubscriber(int initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        protected void hookOnNext(DataBuffer buffer) {
+            try {
+                if (!closed) {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    queue.offer(bytes);
+                }
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            queue.offer(COMPLETE);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            queue.offer(throwable);
+        }
+    }
+}
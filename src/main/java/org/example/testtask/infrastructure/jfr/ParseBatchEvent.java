@@ -0,0 +1,28 @@
+package org.example.testtask.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-подія для пачки рядків, розібраних {@code CsvParser}.
+ */
+@Name("org.example.testtask.ParseBatch")
+@Label("CSV Parse Batch")
+@Category({"TestTask", "Parser"})
+@Description("A batch of CSV rows parsed by CsvParser")
+@StackTrace(false)
+public class ParseBatchEvent extends Event {
+
+    @Label("Row Type")
+    public String rowType;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Rejected Rows")
+    public int rejected;
+}
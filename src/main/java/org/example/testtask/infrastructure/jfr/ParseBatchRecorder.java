@@ -0,0 +1,49 @@
+package org.example.testtask.infrastructure.jfr;
+
+/**
+ * Ділить потік рядків на пачки фіксованого розміру і комітить {@link ParseBatchEvent} на кожну пачку.
+ * Не потокобезпечний: один екземпляр на один потік розбору.
+ */
+public final class ParseBatchRecorder {
+
+    public static final int BATCH_ROWS = 1024;
+
+    private final String rowType;
+    private ParseBatchEvent event;
+
+    public ParseBatchRecorder(String rowType) {
+        this.rowType = rowType;
+        this.event = start();
+    }
+
+    public void accepted() {
+        event.rows++;
+        commitIfFull();
+    }
+
+    public void rejected() {
+        event.rows++;
+        event.rejected++;
+        commitIfFull();
+    }
+
+    public void finish() {
+        if (event.rows > 0) {
+            event.commit();
+        }
+    }
+
+    private void commitIfFull() {
+        if (event.rows >= BATCH_ROWS) {
+            event.commit();
+            event = start();
+        }
+    }
+
+    private ParseBatchEvent start() {
+        ParseBatchEvent next = new ParseBatchEvent();
+        next.rowType = rowType;
+        next.begin();
+        return next;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.testtask.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-подія для пошуку продукту в {@code ProductService}, разом із рівнем кешу, який його обслужив.
+ */
+@Name("org.example.testtask.ProductLookup")
+@Label("Product Lookup")
+@Category({"TestTask", "Cache"})
+@Description("A product lookup and the cache tier that served it")
+@StackTrace(false)
+@Threshold("1 ms")
+public class ProductLookupEvent extends Event {
+
+    public static final String TIER_CATALOG = "catalog";
+    public static final String TIER_LOCAL = "local";
+    public static final String TIER_REDIS = "redis";
+    public static final String TIER_MISSING = "missing";
+    public static final String TIER_FAILED = "failed";
+    public static final String TIER_CANCELLED = "cancelled";
+
+    @Label("Product Id")
+    public String productId;
+
+    @Label("Tier")
+    public String tier;
+}
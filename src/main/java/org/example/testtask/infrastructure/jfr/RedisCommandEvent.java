@@ -0,0 +1,55 @@
+package org.example.testtask.infrastructure.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR-подія для однієї команди Redis з {@code RedisProductCache}.
+ */
+@Name("org.example.testtask.RedisCommand")
+@Label("Redis Command")
+@Category({"TestTask", "Cache"})
+@Description("A single Redis command issued by RedisProductCache")
+@StackTrace(false)
+@Threshold("1 ms")
+public class RedisCommandEvent extends Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Keys")
+    @Description("Keys or hash fields the command touches")
+    public int keys;
+
+    @Label("Hit")
+    public boolean hit;
+
+    public static RedisCommandEvent start(String command, String key) {
+        return start(command, key, 1);
+    }
+
+    /**
+     * Подія для команди над кількома ключами чи полями; {@code key} — перший з них.
+     */
+    public static RedisCommandEvent start(String command, String key, int keys) {
+        RedisCommandEvent event = new RedisCommandEvent();
+        event.begin();
+        event.command = command;
+        event.key = key;
+        event.keys = keys;
+        return event;
+    }
+
+    public void finish(boolean hit) {
+        this.hit = hit;
+        commit();
+    }
+}
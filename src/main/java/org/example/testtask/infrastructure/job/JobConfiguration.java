@@ -0,0 +1,18 @@
+package org.example.testtask.infrastructure.job;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "enrichment.jobs")
+public class JobConfiguration {
+    private int workers = 2;
+    private int queueCapacity = 16;
+    private Path spoolDir = Path.of(System.getProperty("java.io.tmpdir"), "testtask-jobs");
+    private Duration retention = Duration.ofHours(1);
+}
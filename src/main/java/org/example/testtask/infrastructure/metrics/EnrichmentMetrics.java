@@ -0,0 +1,275 @@
+package org.example.testtask.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.testtask.domain.model.RejectReason;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрики конвеєра збагачення та рівнів кешу.
+ * Усі метри створюються один раз у конструкторі, тому гарячий шлях лише інкрементує лічильники.
+ */
+@Component
+public class EnrichmentMetrics {
+
+    public static final String TIER_LOCAL = "local";
+    public static final String TIER_REDIS = "redis";
+
+    public static final String REJECT_MEMORY = "memory";
+    public static final String REJECT_CONCURRENCY = "concurrency";
+    public static final String REJECT_TOO_LARGE = "too_large";
+
+    /**
+     * Латентність збагачення міряється для одного трейду з цієї кількості: сам пошук у каталозі
+     * коштує порівняно з парою викликів {@code nanoTime} і записом у гістограму.
+     */
+    public static final int ENRICH_LATENCY_SAMPLE_RATE = 64;
+
+    /**
+     * Так само латентність розбору міряється для одного рядка трейду з цієї кількості.
+     */
+    public static final int PARSE_LATENCY_SAMPLE_RATE = 64;
+
+    private final Counter tradesParsed;
+    private final Counter tradesRejected;
+    private final Counter tradesFiltered;
+    private final Counter productsParsed;
+    private final Counter productsRejected;
+    private final Counter[] tradeRejectReasons;
+    private final Counter[] productRejectReasons;
+    private final Counter tradesEnriched;
+    private final Counter missingProducts;
+    private final Counter productLookupsFound;
+    private final Counter productLookupsMissing;
+    private final Timer parseLatency;
+    private final Timer enrichLatency;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter redisErrors;
+    private final Timer localLatency;
+    private final Timer redisLatency;
+
+    private final Counter rejectedMemory;
+    private final Counter rejectedConcurrency;
+    private final Counter rejectedTooLarge;
+
+    private final Counter rowsSpilled;
+
+    private final Counter duplicatesDropped;
+    private final Counter duplicatesReported;
+
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicLong spilledBytes = new AtomicLong();
+
+    public EnrichmentMetrics(MeterRegistry registry) {
+        this.tradesParsed = rows(registry, "enrichment.rows.parsed", "trade");
+        this.tradesRejected = rows(registry, "enrichment.rows.rejected", "trade");
+        this.tradesFiltered = rows(registry, "enrichment.rows.filtered", "trade");
+        this.productsParsed = rows(registry, "enrichment.rows.parsed", "product");
+        this.productsRejected = rows(registry, "enrichment.rows.rejected", "product");
+        this.tradeRejectReasons = rejectReasons(registry, "trade");
+        this.productRejectReasons = rejectReasons(registry, "product");
+        this.tradesEnriched = Counter.builder("enrichment.rows.enriched")
+                .description("Trades enriched with a product name")
+                .register(registry);
+        this.missingProducts = Counter.builder("enrichment.products.missing")
+                .description("Trades whose product was not found in the catalog")
+                .register(registry);
+        this.productLookupsFound = Counter.builder("products.lookups")
+                .tag("result", "found")
+                .register(registry);
+        this.productLookupsMissing = Counter.builder("products.lookups")
+                .tag("result", "missing")
+                .register(registry);
+        this.parseLatency = latency(registry, "enrichment.parse.latency", "Time to parse a single trade row, sampled 1 in " + PARSE_LATENCY_SAMPLE_RATE);
+        this.enrichLatency = latency(registry, "enrichment.enrich.latency", "Time to enrich a single trade, sampled 1 in " + ENRICH_LATENCY_SAMPLE_RATE);
+
+        this.localHits = lookups(registry, TIER_LOCAL, "hit");
+        this.localMisses = lookups(registry, TIER_LOCAL, "miss");
+        this.redisHits = lookups(registry, TIER_REDIS, "hit");
+        this.redisMisses = lookups(registry, TIER_REDIS, "miss");
+        this.redisErrors = Counter.builder("cache.errors")
+                .tag("tier", TIER_REDIS)
+                .register(registry);
+        this.localLatency = tierLatency(registry, TIER_LOCAL);
+        this.redisLatency = tierLatency(registry, TIER_REDIS);
+
+        this.rejectedMemory = admissionRejections(registry, REJECT_MEMORY);
+        this.rejectedConcurrency = admissionRejections(registry, REJECT_CONCURRENCY);
+        this.rejectedTooLarge = admissionRejections(registry, REJECT_TOO_LARGE);
+
+        this.rowsSpilled = Counter.builder("enrichment.spill.rows")
+                .description("Rows overflowed from the in-memory response buffer to disk")
+                .register(registry);
+        Gauge.builder("enrichment.spill.bytes", spilledBytes, AtomicLong::get)
+                .description("Bytes currently held in spill files")
+                .baseUnit("bytes")
+                .register(registry);
+
+        this.duplicatesDropped = duplicates(registry, "dropped");
+        this.duplicatesReported = duplicates(registry, "reported");
+
+        Gauge.builder("enrichment.requests.inflight", inFlightRequests, AtomicInteger::get)
+                .description("Enrichment requests currently being processed")
+                .register(registry);
+    }
+
+    public void tradeParsed() {
+        tradesParsed.increment();
+    }
+
+    public boolean sampleParseLatency() {
+        return ThreadLocalRandom.current().nextInt(PARSE_LATENCY_SAMPLE_RATE) == 0;
+    }
+
+    public void parseLatency(long nanos) {
+        parseLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void tradeFiltered() {
+        tradesFiltered.increment();
+    }
+
+    public void rowRejected(String rowType, RejectReason reason) {
+        boolean trade = "trade".equals(rowType);
+        (trade ? tradesRejected : productsRejected).increment();
+        (trade ? tradeRejectReasons : productRejectReasons)[reason.ordinal()].increment();
+    }
+
+    public void productParsed() {
+        productsParsed.increment();
+    }
+
+    public void tradeEnriched(boolean productFound) {
+        tradesEnriched.increment();
+        if (!productFound) {
+            missingProducts.increment();
+        }
+    }
+
+    /**
+     * Чи міряти латентність поточного збагачення; без спільного лічильника, тож паралельні рейки не конкурують.
+     */
+    public boolean sampleEnrichLatency() {
+        return ThreadLocalRandom.current().nextInt(ENRICH_LATENCY_SAMPLE_RATE) == 0;
+    }
+
+    public void enrichLatency(long nanos) {
+        enrichLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void productLookup(boolean found) {
+        (found ? productLookupsFound : productLookupsMissing).increment();
+    }
+
+    public void localLookup(long nanos, boolean hit) {
+        (hit ? localHits : localMisses).increment();
+        localLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void redisLookup(long nanos, boolean hit) {
+        (hit ? redisHits : redisMisses).increment();
+        redisLatency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void redisError() {
+        redisErrors.increment();
+    }
+
+    public void admissionRejected(String reason) {
+        switch (reason) {
+            case REJECT_MEMORY -> rejectedMemory.increment();
+            case REJECT_CONCURRENCY -> rejectedConcurrency.increment();
+            default -> rejectedTooLarge.increment();
+        }
+    }
+
+    public void rowSpilled(long bytes) {
+        rowsSpilled.increment();
+        spilledBytes.addAndGet(bytes);
+    }
+
+    public void spillReleased(long bytes) {
+        spilledBytes.addAndGet(-bytes);
+    }
+
+    public void duplicateSuspected(boolean dropped) {
+        (dropped ? duplicatesDropped : duplicatesReported).increment();
+    }
+
+    public void requestStarted() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    public void requestFinished() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    public int inFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    private static Counter rows(MeterRegistry registry, String name, String type) {
+        return Counter.builder(name)
+                .tag("type", type)
+                .register(registry);
+    }
+
+    private static Counter[] rejectReasons(MeterRegistry registry, String type) {
+        RejectReason[] reasons = RejectReason.values();
+        Counter[] counters = new Counter[reasons.length];
+        for (RejectReason reason : reasons) {
+            counters[reason.ordinal()] = Counter.builder("enrichment.rejects")
+                    .description("Rejected CSV rows by reason code")
+                    .tag("type", type)
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        return counters;
+    }
+
+    private static Counter lookups(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("cache.lookups")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private static Counter admissionRejections(MeterRegistry registry, String reason) {
+        return Counter.builder("admission.rejected")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static Counter duplicates(MeterRegistry registry, String action) {
+        return Counter.builder("enrichment.rows.duplicate")
+                .description("Trades suspected to be duplicates by the Bloom filter")
+                .tag("action", action)
+                .register(registry);
+    }
+
+    private static Timer tierLatency(MeterRegistry registry, String tier) {
+        return Timer.builder("cache.lookup.latency")
+                .tag("tier", tier)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static Timer latency(MeterRegistry registry, String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
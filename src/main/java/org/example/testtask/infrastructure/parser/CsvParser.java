@@ -1,69 +1,237 @@
 package org.example.testtask.infrastructure.parser;
 
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
+import com.opencsv.ICSVParser;
 import com.opencsv.exceptions.CsvValidationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.model.RejectReason;
 import org.example.testtask.domain.model.Trade;
+import org.example.testtask.infrastructure.catalog.StringDictionary;
+import org.example.testtask.infrastructure.jfr.ParseBatchRecorder;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.util.Objects;
+import java.time.Month;
+import java.time.Year;
+import java.util.List;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class CsvParser {
 
-    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE; // yyyyMMdd
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+    private static final int CHUNK_PREFETCH = 2;
+    private static final String TRADE_HEADER_PREFIX = "date,";
+
+    private final EnrichmentMetrics metrics;
+
+    // Валют і назв продуктів лише кілька десятків: кожен рядок-дублікат замінюється канонічним екземпляром
+    private final StringDictionary currencies = new StringDictionary(MAX_DICTIONARY_SIZE);
+    private final StringDictionary productNames = new StringDictionary(MAX_DICTIONARY_SIZE);
 
 
     public Flux<Trade> parseTrades(Reader reader) {
-        return Flux.using(
-                () -> new CSVReader(reader),
-                csvReader -> Flux.create(emitter -> {
-                    try {
-                        // Пропускаємо заголовок
-                        csvReader.skip(1);
-                        String[] row;
-                        while ((row = csvReader.readNext()) != null) {
-                            try {
-                                Trade trade = createTradeFromRow(row);
-                                emitter.next(trade);
-                            } catch (Exception e) {
-                                log.error("Error parsing trade row: {}. Skipping row.", String.join(",", row), e);
-                            }
-                        }
-                        emitter.complete();
-                    } catch (IOException | CsvValidationException ex) {
-                        emitter.error(ex);
+        return parseTrades(reader, new RejectLog("trade"));
+    }
+
+    /**
+     * Розбирає трейди; невалідні рядки не кидають винятків, а йдуть у {@code rejects} з номером рядка і причиною.
+     * Позиції колонок беруться із заголовка файлу (див. {@link TradeColumnPlan}); заголовок без
+     * потрібних колонок завершує потік з {@link IllegalArgumentException}.
+     */
+    public Flux<Trade> parseTrades(Reader reader, RejectLog rejects) {
+        return parseTrades(reader, rejects, TradeFilter.none());
+    }
+
+    /**
+     * Те саме, але рядки, що не проходять {@code filter}, пропускаються ще до розбору дати й ціни
+     * і не рахуються ні прийнятими, ні відхиленими.
+     */
+    public Flux<Trade> parseTrades(Reader reader, RejectLog rejects, TradeFilter filter) {
+        // Рядок читається лише під запит споживача: буфер з backpressure (спул, паркування) стримує саме читання,
+        // а не накопичує розібрані трейди в черзі продюсера
+        return Flux.generate(
+                () -> new TradeRowReader(new CSVReader(reader), rejects, filter),
+                (rows, sink) -> {
+                    rows.next(sink);
+                    return rows;
+                },
+                TradeRowReader::close);
+    }
+
+    /**
+     * Стан одного проходу {@link #parseTrades}: кожен виклик {@link #next} читає рядки до першого прийнятого трейду.
+     */
+    private final class TradeRowReader {
+
+        private final CSVReader csvReader;
+        private final RejectLog rejects;
+        private final TradeFilter filter;
+        private final ParseBatchRecorder batches = new ParseBatchRecorder("trade");
+        private TradeColumnPlan plan;
+
+        private TradeRowReader(CSVReader csvReader, RejectLog rejects, TradeFilter filter) {
+            this.csvReader = csvReader;
+            this.rejects = rejects;
+            this.filter = filter;
+        }
+
+        void next(SynchronousSink<Trade> sink) {
+            try {
+                if (plan == null) {
+                    // План колонок компілюється із заголовка один раз на файл
+                    String[] header = csvReader.readNext();
+                    plan = header == null ? TradeColumnPlan.POSITIONAL : TradeColumnPlan.compile(header);
+                }
+                String[] row;
+                while ((row = csvReader.readNext()) != null) {
+                    if (!filter.matches(row, plan)) {
+                        metrics.tradeFiltered();
+                        continue;
                     }
-                }),
-                csvReader -> {
-                    try {
-                        csvReader.close();
-                    } catch (IOException e) {
-                        log.error("Error closing CSVReader", e);
+                    boolean timed = metrics.sampleParseLatency();
+                    long start = timed ? System.nanoTime() : 0;
+                    Trade trade = createTradeFromRow(plan, row, csvReader.getLinesRead(), rejects);
+                    if (trade != null) {
+                        // Час міряється лише для вибірки 1 з 64, як латентність збагачення в TradeService
+                        if (timed) {
+                            metrics.parseLatency(System.nanoTime() - start);
+                        }
+                        metrics.tradeParsed();
+                        batches.accepted();
+                        filter.emitted();
+                        sink.next(trade);
+                        return;
                     }
+                    batches.rejected();
                 }
-        );
+                batches.finish();
+                rejects.finish();
+                filter.finish();
+                sink.complete();
+            } catch (IOException | CsvValidationException | IllegalArgumentException ex) {
+                sink.error(ex);
+            }
+        }
+
+        void close() {
+            try {
+                csvReader.close();
+            } catch (IOException e) {
+                log.error("Error closing CSVReader", e);
+            }
+        }
+    }
+
+
+    /**
+     * Розбирає трейди з потоку текстових чанків (один або кілька рядків CSV у кожному) без блокуючого Reader.
+     * Заголовок необов'язковий: якщо перший непорожній рядок схожий на заголовок, з нього компілюється план колонок,
+     * інакше діє розкладка {@code date,productId,currency,price}. Повтори заголовка і порожні рядки пропускаються.
+     * Наступний чанк запитується лише тоді, коли знизу є попит, тож backpressure споживача доходить до джерела.
+     */
+    public Flux<Trade> parseTradeRows(Flux<String> chunks, RejectLog rejects) {
+        return Flux.defer(() -> {
+            CSVParser lineParser = new CSVParser();
+            ParseBatchRecorder batches = new ParseBatchRecorder("trade");
+            long[] lineNumber = {0};
+            TradeColumnPlan[] plan = {null};
+            String[] headerLine = {null};
+            return chunks.concatMapIterable(chunk -> List.of(chunk.split("\r?\n")), CHUNK_PREFETCH)
+                    .<Trade>handle((line, sink) -> {
+                        lineNumber[0]++;
+                        // Повтор заголовка; у потоці без заголовка, як і раніше, пропускаються рядки "date,..."
+                        if (line.isBlank() || line.equals(headerLine[0])
+                                || headerLine[0] == null && plan[0] != null && line.startsWith(TRADE_HEADER_PREFIX)) {
+                            return;
+                        }
+                        boolean timed = metrics.sampleParseLatency();
+                        long start = timed ? System.nanoTime() : 0;
+                        String[] row;
+                        try {
+                            row = lineParser.parseLine(line);
+                        } catch (IOException e) {
+                            // Незакриті лапки: чанки ріжуться по рядках, тож багаторядкові поля не підтримуються
+                            batches.rejected();
+                            reject(rejects, "trade", lineNumber[0], RejectReason.MALFORMED_ROW, line);
+                            return;
+                        }
+                        if (plan[0] == null) {
+                            if (TradeColumnPlan.isHeader(row)) {
+                                try {
+                                    plan[0] = TradeColumnPlan.compile(row);
+                                    headerLine[0] = line;
+                                } catch (IllegalArgumentException e) {
+                                    sink.error(e);
+                                }
+                                return;
+                            }
+                            plan[0] = TradeColumnPlan.POSITIONAL;
+                        }
+                        Trade trade = createTradeFromRow(plan[0], row, lineNumber[0], rejects);
+                        if (trade != null) {
+                            if (timed) {
+                                metrics.parseLatency(System.nanoTime() - start);
+                            }
+                            metrics.tradeParsed();
+                            batches.accepted();
+                            sink.next(trade);
+                        } else {
+                            batches.rejected();
+                        }
+                    })
+                    .doOnTerminate(() -> {
+                        batches.finish();
+                        rejects.finish();
+                    });
+        });
     }
 
 
     public Flux<Product> parseProducts(Reader reader) {
+        return parseProducts(reader, new RejectLog("product"));
+    }
+
+    public Flux<Product> parseProducts(Reader reader, RejectLog rejects) {
         return Flux.using(
                 () -> new BufferedReader(reader),
-                bufferedReader -> Flux.fromStream(bufferedReader.lines())
-                        .skip(1)
-                        .map(this::createProductFromLine)
-                        .filter(Objects::nonNull)
-                        .onErrorContinue((error, line) ->
-                                log.error("Error parsing product line: {}. Skipping line.", line, error)),
+                bufferedReader -> Flux.defer(() -> {
+                    ParseBatchRecorder batches = new ParseBatchRecorder("product");
+                    // Заголовок — перший рядок
+                    long[] lineNumber = {1};
+                    return Flux.fromStream(bufferedReader.lines())
+                            .skip(1)
+                            .<Product>handle((line, sink) -> {
+                                Product product = createProductFromLine(line, ++lineNumber[0], rejects);
+                                if (product != null) {
+                                    metrics.productParsed();
+                                    batches.accepted();
+                                    sink.next(product);
+                                } else {
+                                    batches.rejected();
+                                }
+                            })
+                            .onErrorContinue((error, line) -> {
+                                batches.rejected();
+                                reject(rejects, "product", lineNumber[0], RejectReason.MALFORMED_ROW, String.valueOf(line));
+                            })
+                            .doOnComplete(() -> {
+                                batches.finish();
+                                rejects.finish();
+                            });
+                }),
                 bufferedReader -> {
                     try {
                         bufferedReader.close();
@@ -75,28 +243,138 @@ public class CsvParser {
     }
 
 
+    /**
+     * Розбирає рядок продукту без журналу відхилень; невалідний рядок лише рахується в метриках.
+     */
     public Product createProductFromLine(String line) {
-        String[] fields = line.split(",");
-        if (fields.length < 2 || fields[0].trim().isEmpty() || fields[1].trim().isEmpty()) {
-            log.error("Invalid product line: {}", line);
-            return null; // Return null if the line is invalid
+        return createProductFromLine(line, 0, null);
+    }
+
+    public Product createProductFromLine(String line, long lineNumber, RejectLog rejects) {
+        String[] fields;
+        if (line.indexOf('"') < 0) {
+            fields = line.split(",");
+        } else {
+            // Поле в лапках може містити кому; CSVParser не потокобезпечний, а прелоадер розбирає чанки паралельно
+            try {
+                fields = new CSVParserBuilder().withEscapeChar(ICSVParser.NULL_CHARACTER).build().parseLine(line);
+            } catch (IOException e) {
+                return reject(rejects, "product", lineNumber, RejectReason.MALFORMED_ROW, line);
+            }
+        }
+        if (fields.length < 2) {
+            return reject(rejects, "product", lineNumber, RejectReason.MISSING_FIELDS, line);
+        }
+        String productId = fields[0].trim();
+        String productName = fields[1].trim();
+        if (productId.isEmpty()) {
+            return reject(rejects, "product", lineNumber, RejectReason.EMPTY_PRODUCT_ID, line);
+        }
+        if (productName.isEmpty()) {
+            return reject(rejects, "product", lineNumber, RejectReason.EMPTY_PRODUCT_NAME, line);
         }
-        return new Product(fields[0].trim(), fields[1].trim());
+        return new Product(productId, productNames.intern(productName));
     }
 
 
-    private Trade createTradeFromRow(String[] row) {
-        try {
-            LocalDate date = LocalDate.parse(row[0].trim(), DATE_FORMATTER);
-            BigDecimal price = new BigDecimal(row[3].trim());
-            return Trade.builder()
-                    .date(date)
-                    .productId(row[1].trim())
-                    .currency(row[2].trim())
-                    .price(price)
-                    .build();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to parse trade row: " + String.join(",", row), e);
+    private Trade createTradeFromRow(TradeColumnPlan plan, String[] row, long lineNumber, RejectLog rejects) {
+        if (row.length < plan.minColumns) {
+            return reject(rejects, "trade", lineNumber, RejectReason.MISSING_FIELDS, row);
+        }
+        LocalDate date = parseDate(row[plan.date].trim());
+        if (date == null) {
+            return reject(rejects, "trade", lineNumber, RejectReason.INVALID_DATE, row);
+        }
+        String productId = row[plan.productId].trim();
+        if (productId.isEmpty()) {
+            return reject(rejects, "trade", lineNumber, RejectReason.EMPTY_PRODUCT_ID, row);
+        }
+        BigDecimal price = parsePrice(row[plan.price].trim());
+        if (price == null) {
+            return reject(rejects, "trade", lineNumber, RejectReason.INVALID_PRICE, row);
+        }
+        return Trade.builder()
+                .date(date)
+                .productId(productId)
+                .currency(currencies.intern(row[plan.currency].trim()))
+                .price(price)
+                .build();
+    }
+
+    private <T> T reject(RejectLog rejects, String rowType, long lineNumber, RejectReason reason, String[] row) {
+        return reject(rejects, rowType, lineNumber, reason, String.join(",", row));
+    }
+
+    private <T> T reject(RejectLog rejects, String rowType, long lineNumber, RejectReason reason, String row) {
+        metrics.rowRejected(rowType, reason);
+        if (rejects != null) {
+            rejects.reject(lineNumber, reason, row);
+        }
+        return null;
+    }
+
+    /**
+     * Розбирає дату у форматі yyyyMMdd без винятків: для невалідного значення повертає {@code null}.
+     */
+    static LocalDate parseDate(String value) {
+        if (value.length() != 8) {
+            return null;
+        }
+        int digits = 0;
+        for (int i = 0; i < 8; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return null;
+            }
+            digits = digits * 10 + (c - '0');
+        }
+        int year = digits / 10_000;
+        int month = digits / 100 % 100;
+        int day = digits % 100;
+        if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Перевіряє формат десяткового числа перед створенням {@link BigDecimal}, щоб не ловити винятки на брак.
+     */
+    static BigDecimal parsePrice(String value) {
+        int length = value.length();
+        int i = 0;
+        if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+            i++;
+        }
+        int digits = 0;
+        boolean dot = false;
+        for (; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return null;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < length && value.charAt(i) >= '0' && value.charAt(i) <= '9') {
+                i++;
+            }
+            // Експонента понад 9 цифр переповнює scale у BigDecimal
+            if (i == exponentStart || i - exponentStart > 9) {
+                return null;
+            }
         }
+        return i == length ? new BigDecimal(value) : null;
     }
 }
@@ -0,0 +1,146 @@
+package org.example.testtask.infrastructure.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.RejectReason;
+import org.example.testtask.domain.model.RejectReport;
+import org.example.testtask.domain.model.RejectedRow;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Бічний канал для відхилених рядків одного файлу: рахує їх за причинами, зберігає кілька прикладів
+ * і, за потреби, пише всі відхилені рядки у файл. У лог потрапляють лише перші рядки та підсумок —
+ * без стек-трейсів, тож файл з великою часткою браку не сповільнює розбір.
+ * <p>
+ * Не потокобезпечний: один екземпляр на один потік розбору.
+ */
+@Slf4j
+public class RejectLog implements Closeable {
+
+    public static final String HEADER = "line,reason,row";
+
+    private static final int DEFAULT_SAMPLES = 20;
+    private static final int LOGGED_ROWS = 5;
+    private static final int MAX_SAMPLE_CHARS = 256;
+
+    private final String rowType;
+    private final int maxSamples;
+    private final Writer writer;
+    private final long[] counts = new long[RejectReason.values().length];
+    private final List<RejectedRow> samples = new ArrayList<>();
+    private long total;
+    private long nextProgressLog = 1_000;
+
+    public RejectLog(String rowType) {
+        this(rowType, DEFAULT_SAMPLES, null);
+    }
+
+    private RejectLog(String rowType, int maxSamples, Writer writer) {
+        this.rowType = rowType;
+        this.maxSamples = maxSamples;
+        this.writer = writer;
+    }
+
+    /**
+     * Журнал, що додатково пише кожен відхилений рядок у CSV-файл {@code line,reason,row}.
+     */
+    public static RejectLog toFile(String rowType, Path file) throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        writer.write(HEADER);
+        writer.write('\n');
+        return new RejectLog(rowType, DEFAULT_SAMPLES, writer);
+    }
+
+    public void reject(long line, RejectReason reason, String row) {
+        total++;
+        counts[reason.ordinal()]++;
+        if (samples.size() < maxSamples) {
+            samples.add(new RejectedRow(line, reason, truncate(row)));
+        }
+        if (total <= LOGGED_ROWS) {
+            log.warn("Rejected {} row at line {}: {} [{}]", rowType, line, reason, truncate(row));
+        } else if (total == nextProgressLog) {
+            log.warn("{} {} rows rejected so far", total, rowType);
+            nextProgressLog *= 10;
+        }
+        if (writer != null) {
+            write(line, reason, row);
+        }
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long count(RejectReason reason) {
+        return counts[reason.ordinal()];
+    }
+
+    public RejectReport toReport() {
+        Map<RejectReason, Long> byReason = new EnumMap<>(RejectReason.class);
+        for (RejectReason reason : RejectReason.values()) {
+            if (counts[reason.ordinal()] > 0) {
+                byReason.put(reason, counts[reason.ordinal()]);
+            }
+        }
+        return RejectReport.builder()
+                .rows(total)
+                .byReason(byReason)
+                .samples(Collections.unmodifiableList(new ArrayList<>(samples)))
+                .build();
+    }
+
+    /**
+     * Логує підсумок по файлу і скидає буфер файлу відхилених рядків.
+     */
+    public void finish() {
+        if (total > 0) {
+            log.warn("Rejected {} {} rows: {}", total, rowType, toReport().getByReason());
+        }
+        if (writer != null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                log.warn("Could not flush reject file: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private void write(long line, RejectReason reason, String row) {
+        try {
+            writer.write(Long.toString(line));
+            writer.write(',');
+            writer.write(reason.name());
+            writer.write(",\"");
+            writer.write(row == null ? "" : row.replace("\"", "\"\""));
+            writer.write("\"\n");
+        } catch (IOException e) {
+            log.warn("Could not write rejected {} row at line {}: {}", rowType, line, e.getMessage());
+        }
+    }
+
+    private static String truncate(String row) {
+        if (row == null) {
+            return "";
+        }
+        return row.length() <= MAX_SAMPLE_CHARS ? row : row.substring(0, MAX_SAMPLE_CHARS) + "...";
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.testtask.infrastructure.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * План розбору трейдів, скомпільований із заголовка файлу один раз: позиція кожного поля трейду.
+ * Рядок читається за готовими індексами, тож вартість така сама, як у фіксованої розкладки,
+ * а зайві чи переставлені колонки не потребують окремого проходу для переформатування.
+ * Невідомі колонки пропускаються.
+ */
+final class TradeColumnPlan {
+
+    /**
+     * Розкладка {@code date,productId,currency,price} для файлів, заголовок яких не містить відомих назв колонок.
+     */
+    static final TradeColumnPlan POSITIONAL = new TradeColumnPlan(0, 1, 2, 3);
+
+    private static final String[] COLUMNS = {"date", "productid", "currency", "price"};
+
+    final int date;
+    final int productId;
+    final int currency;
+    final int price;
+    // Рядок коротший за це значення не містить усіх потрібних полів
+    final int minColumns;
+
+    private TradeColumnPlan(int date, int productId, int currency, int price) {
+        this.date = date;
+        this.productId = productId;
+        this.currency = currency;
+        this.price = price;
+        this.minColumns = Math.max(Math.max(date, productId), Math.max(currency, price)) + 1;
+    }
+
+    /**
+     * Рядок вважається заголовком, якщо хоча б одна його клітинка — відома назва колонки.
+     */
+    static boolean isHeader(String[] row) {
+        for (String cell : row) {
+            if (columnOf(cell) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @throws IllegalArgumentException якщо заголовок не містить потрібної колонки або повторює її
+     */
+    static TradeColumnPlan compile(String[] header) {
+        if (!isHeader(header)) {
+            return POSITIONAL;
+        }
+        int[] positions = {-1, -1, -1, -1};
+        for (int i = 0; i < header.length; i++) {
+            int column = columnOf(header[i]);
+            if (column < 0) {
+                continue;
+            }
+            if (positions[column] >= 0) {
+                throw new IllegalArgumentException("Duplicate trade CSV column: " + header[i].trim());
+            }
+            positions[column] = i;
+        }
+        List<String> missing = new ArrayList<>();
+        for (int column = 0; column < COLUMNS.length; column++) {
+            if (positions[column] < 0) {
+                missing.add(COLUMNS[column]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Trade CSV header is missing columns " + missing);
+        }
+        return new TradeColumnPlan(positions[0], positions[1], positions[2], positions[3]);
+    }
+
+    /**
+     * Назви порівнюються без регістру, пробілів, {@code _}/{@code -} і BOM: {@code product_id} = {@code productId}.
+     */
+    private static int columnOf(String cell) {
+        StringBuilder name = new StringBuilder(cell.length());
+        for (int i = 0; i < cell.length(); i++) {
+            char c = cell.charAt(i);
+            if (c != '_' && c != '-' && c != '\uFEFF' && !Character.isWhitespace(c)) {
+                name.append(c);
+            }
+        }
+        String normalized = name.toString().toLowerCase(Locale.ROOT);
+        for (int column = 0; column < COLUMNS.length; column++) {
+            if (COLUMNS[column].equals(normalized)) {
+                return column;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.testtask.infrastructure.parser;
+
+import org.example.testtask.domain.model.Trade;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Записує збагачені трейди у CSV у тому ж форматі дат, що й вхідний файл.
+ */
+@Component
+public class TradeCsvFormatter {
+
+    public static final String HEADER = "date,productId,productName,currency,price";
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE; // yyyyMMdd
+
+    public void writeHeader(Appendable out) throws IOException {
+        out.append(HEADER).append('\n');
+    }
+
+    public void write(Trade trade, Appendable out) throws IOException {
+        DATE_FORMATTER.formatTo(trade.getDate(), out);
+        out.append(',').append(trade.getProductId())
+                .append(',').append(quote(trade.getProductName()))
+                .append(',').append(trade.getCurrency())
+                .append(',').append(trade.getPrice().toPlainString())
+                .append('\n');
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
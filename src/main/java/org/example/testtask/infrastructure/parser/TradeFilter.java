@@ -0,0 +1,168 @@
+package org.example.testtask.infrastructure.parser;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.FilterReport;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Фільтр трейдів за діапазоном дат, валютами і продуктами, що виконується в {@link CsvParser}
+ * на сирих полях рядка — до створення {@code LocalDate}, {@code BigDecimal} і {@code Trade}.
+ * Дата {@code yyyyMMdd} порівнюється як рядок, валюта й продукт — пошуком у множині, тож рядок,
+ * що не проходить фільтр, коштує лише кількох порівнянь.
+ * <p>
+ * Рядки, які не вдається перевірити на сирих полях (закороткі або з датою не з восьми цифр), фільтр пропускає:
+ * їх відхиляє звичайна валідація, і вони потрапляють у журнал відхилень, як і без фільтра.
+ * <p>
+ * Рахує переглянуті, відсіяні й віддані рядки. Не потокобезпечний: один екземпляр на один потік розбору.
+ */
+@Slf4j
+public class TradeFilter {
+
+    private final String fromDate;
+    private final String toDate;
+    private final Set<String> currencies;
+    private final Set<String> productIds;
+
+    private long scanned;
+    private long skipped;
+    private long emitted;
+
+    private TradeFilter(String fromDate, String toDate, Set<String> currencies, Set<String> productIds) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.currencies = currencies;
+        this.productIds = productIds;
+    }
+
+    public static TradeFilter none() {
+        return new TradeFilter(null, null, Set.of(), Set.of());
+    }
+
+    /**
+     * Порожні або {@code null} параметри не обмежують вибірку; межі дат включні.
+     *
+     * @param fromDate   перша дата у форматі {@code yyyyMMdd}
+     * @param toDate     остання дата у форматі {@code yyyyMMdd}
+     * @param currencies коди валют, без урахування регістру
+     * @param productIds ID продуктів
+     * @throws IllegalArgumentException якщо дата невалідна або {@code fromDate} пізніше за {@code toDate}
+     */
+    public static TradeFilter of(String fromDate, String toDate,
+                                 Collection<String> currencies, Collection<String> productIds) {
+        String from = date("from", fromDate);
+        String to = date("to", toDate);
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new IllegalArgumentException("Date range is empty: " + from + " > " + to);
+        }
+        return new TradeFilter(from, to,
+                values(currencies, value -> value.toUpperCase(Locale.ROOT)), values(productIds, value -> value));
+    }
+
+    public boolean isEmpty() {
+        return fromDate == null && toDate == null && currencies.isEmpty() && productIds.isEmpty();
+    }
+
+    /**
+     * Перевіряє рядок на сирих полях; рядок, який не проходить, рахується як відсіяний.
+     */
+    boolean matches(String[] row, TradeColumnPlan plan) {
+        scanned++;
+        if (isEmpty() || row.length < plan.minColumns || matchesFields(row, plan)) {
+            return true;
+        }
+        skipped++;
+        return false;
+    }
+
+    void emitted() {
+        emitted++;
+    }
+
+    public FilterReport toReport() {
+        return FilterReport.builder()
+                .scanned(scanned)
+                .skipped(skipped)
+                .emitted(emitted)
+                .build();
+    }
+
+    /**
+     * Логує підсумок по файлу, якщо фільтр був заданий.
+     */
+    void finish() {
+        if (!isEmpty()) {
+            log.info("Trade filter scanned {} rows, skipped {}, emitted {}", scanned, skipped, emitted);
+        }
+    }
+
+    private boolean matchesFields(String[] row, TradeColumnPlan plan) {
+        if (fromDate != null || toDate != null) {
+            // trim() без пробілів повертає той самий рядок, тож нових об'єктів тут немає
+            String date = row[plan.date].trim();
+            if (isBasicDate(date)
+                    && (fromDate != null && date.compareTo(fromDate) < 0 || toDate != null && date.compareTo(toDate) > 0)) {
+                return false;
+            }
+        }
+        if (!currencies.isEmpty() && !currencies.contains(upperCase(row[plan.currency].trim()))) {
+            return false;
+        }
+        return productIds.isEmpty() || productIds.contains(row[plan.productId].trim());
+    }
+
+    /**
+     * Вісім цифр: для такого рядка лексикографічний порядок збігається з календарним.
+     */
+    private static boolean isBasicDate(String value) {
+        if (value.length() != 8) {
+            return false;
+        }
+        for (int i = 0; i < 8; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Коди валют у файлах майже завжди у верхньому регістрі, тож копія створюється лише для винятків.
+     */
+    private static String upperCase(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                return value.toUpperCase(Locale.ROOT);
+            }
+        }
+        return value;
+    }
+
+    private static String date(String name, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String date = value.trim();
+        if (CsvParser.parseDate(date) == null) {
+            throw new IllegalArgumentException("Invalid " + name + " date, expected yyyyMMdd: " + value);
+        }
+        return date;
+    }
+
+    private static Set<String> values(Collection<String> values, UnaryOperator<String> normalizer) {
+        if (values == null) {
+            return Set.of();
+        }
+        return values.stream()
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(normalizer)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,233 @@
+package org.example.testtask.infrastructure.parser;
+
+import com.opencsv.CSVParser;
+import lombok.RequiredArgsConstructor;
+import org.example.testtask.domain.model.RejectReason;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Режим splice: збагачення CSV у CSV без розбору трейдів. Кожен рядок копіюється байт у байт,
+ * декодується лише поле productId, а назва продукту дописується останньою колонкою
+ * перед оригінальним закінченням рядка. Дати й ціни не розбираються і не переформатовуються,
+ * тому такі рядки не валідуються, а форматування джерела зберігається точно.
+ * <p>
+ * Поля в лапках підтримуються, але запис має вміщатися в один рядок, як і в {@link CsvParser#parseTradeRows}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TradeRowSplicer {
+
+    public static final String PRODUCT_NAME_COLUMN = "productName";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_CACHED_NAMES = 4096;
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LF = {'\n'};
+    private static final byte[] NONE = {};
+
+    private final EnrichmentMetrics metrics;
+
+    /**
+     * Копіює {@code in} у {@code out}, дописуючи до заголовка {@code ,productName}, а до кожного рядка — назву
+     * продукту від {@code productNames}. Невалідні рядки не пишуться, а йдуть у {@code rejects}.
+     *
+     * @return кількість записаних рядків трейдів
+     * @throws IllegalArgumentException якщо заголовок не містить потрібних колонок
+     */
+    public long splice(InputStream in, OutputStream out, UnaryOperator<String> productNames, RejectLog rejects)
+            throws IOException {
+        Splice splice = new Splice(out, productNames, rejects);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int start = 0;
+        int limit = 0;
+        int read;
+        while ((read = in.read(buffer, limit, buffer.length - limit)) >= 0) {
+            limit += read;
+            int lineEnd;
+            while ((lineEnd = indexOf(buffer, (byte) '\n', start, limit)) >= 0) {
+                splice.line(buffer, start, lineEnd + 1);
+                start = lineEnd + 1;
+            }
+            // Незавершений рядок переноситься на початок буфера; довгий рядок розширює буфер
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, limit - start);
+                limit -= start;
+                start = 0;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        if (limit > start) {
+            splice.line(buffer, start, limit);
+        }
+        rejects.finish();
+        return splice.rows;
+    }
+
+    private final class Splice {
+
+        private final OutputStream out;
+        private final UnaryOperator<String> productNames;
+        private final RejectLog rejects;
+        private final Map<String, byte[]> encodedNames = new HashMap<>();
+        private final int[] field = new int[2];
+
+        private TradeColumnPlan plan;
+        private long lineNumber;
+        private long rows;
+
+        private Splice(OutputStream out, UnaryOperator<String> productNames, RejectLog rejects) {
+            this.out = out;
+            this.productNames = productNames;
+            this.rejects = rejects;
+        }
+
+        /**
+         * @param end позиція після {@code \n} або кінець даних для останнього рядка без нього
+         */
+        void line(byte[] buffer, int start, int end) throws IOException {
+            lineNumber++;
+            byte[] terminator = NONE;
+            int contentEnd = end;
+            if (contentEnd > start && buffer[contentEnd - 1] == '\n') {
+                contentEnd--;
+                terminator = LF;
+                if (contentEnd > start && buffer[contentEnd - 1] == '\r') {
+                    contentEnd--;
+                    terminator = CRLF;
+                }
+            }
+            if (plan == null) {
+                header(buffer, start, contentEnd, terminator);
+                return;
+            }
+            if (contentEnd == start) {
+                return;
+            }
+            int fields = locate(buffer, start, contentEnd);
+            if (fields < 0) {
+                reject(RejectReason.MALFORMED_ROW, buffer, start, contentEnd);
+                return;
+            }
+            if (fields < plan.minColumns) {
+                reject(RejectReason.MISSING_FIELDS, buffer, start, contentEnd);
+                return;
+            }
+            String productId = decode(buffer, field[0], field[1]);
+            if (productId.isEmpty()) {
+                reject(RejectReason.EMPTY_PRODUCT_ID, buffer, start, contentEnd);
+                return;
+            }
+            out.write(buffer, start, contentEnd - start);
+            out.write(',');
+            out.write(encodedName(productNames.apply(productId)));
+            out.write(terminator);
+            rows++;
+        }
+
+        private void header(byte[] buffer, int start, int end, byte[] terminator) throws IOException {
+            String header = new String(buffer, start, end - start, StandardCharsets.UTF_8);
+            plan = TradeColumnPlan.compile(new CSVParser().parseLine(header));
+            out.write(buffer, start, end - start);
+            out.write(("," + PRODUCT_NAME_COLUMN).getBytes(StandardCharsets.UTF_8));
+            out.write(terminator == NONE ? LF : terminator);
+        }
+
+        /**
+         * Проходить межі полів до {@code plan.minColumns}, запам'ятовуючи межі поля productId у {@link #field}.
+         *
+         * @return кількість знайдених полів (не більше потрібної) або -1 для незакритих лапок
+         */
+        private int locate(byte[] buffer, int start, int end) {
+            int position = start;
+            int fields = 0;
+            while (fields < plan.minColumns) {
+                int fieldStart = position;
+                if (position < end && buffer[position] == '"') {
+                    position++;
+                    while (true) {
+                        if (position >= end) {
+                            return -1;
+                        }
+                        if (buffer[position] == '"') {
+                            if (position + 1 < end && buffer[position + 1] == '"') {
+                                position += 2;
+                                continue;
+                            }
+                            position++;
+                            break;
+                        }
+                        position++;
+                    }
+                }
+                position = indexOfOrEnd(buffer, (byte) ',', position, end);
+                if (fields == plan.productId) {
+                    field[0] = fieldStart;
+                    field[1] = position;
+                }
+                fields++;
+                if (position == end) {
+                    break;
+                }
+                position++;
+            }
+            return fields;
+        }
+
+        private String decode(byte[] buffer, int start, int end) {
+            String value = new String(buffer, start, end - start, StandardCharsets.UTF_8).trim();
+            if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+                value = value.substring(1, value.length() - 1).replace("\"\"", "\"").trim();
+            }
+            return value;
+        }
+
+        private byte[] encodedName(String name) {
+            byte[] encoded = encodedNames.get(name);
+            if (encoded == null) {
+                if (encodedNames.size() >= MAX_CACHED_NAMES) {
+                    encodedNames.clear();
+                }
+                encoded = quote(name).getBytes(StandardCharsets.UTF_8);
+                encodedNames.put(name, encoded);
+            }
+            return encoded;
+        }
+
+        private void reject(RejectReason reason, byte[] buffer, int start, int end) {
+            metrics.rowRejected("trade", reason);
+            rejects.reject(lineNumber, reason, new String(buffer, start, end - start, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static int indexOf(byte[] buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfOrEnd(byte[] buffer, byte value, int from, int to) {
+        int index = indexOf(buffer, value, from, to);
+        return index < 0 ? to : index;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.testtask.infrastructure.partition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Кільце консистентного хешування з віртуальними вузлами.
+ * Додавання чи видалення вузла переносить лише ~1/N ключів, решта лишається на своїх шардах.
+ */
+public final class ConsistentHashRing {
+
+    private static final long PRIME = 0x100000001B3L;
+    private static final long OFFSET = 0xCBF29CE484222325L;
+
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("Hash ring needs at least one node");
+        }
+        int replicas = Math.max(1, virtualNodes);
+        List<Point> ring = new ArrayList<>(nodes.size() * replicas);
+        for (String node : nodes) {
+            for (int i = 0; i < replicas; i++) {
+                ring.add(new Point(hash(node + "#" + i), node));
+            }
+        }
+        // При колізії точок перемагає менший ID вузла, щоб кільце не залежало від порядку в конфігурації
+        ring.sort(Comparator.comparingLong(Point::hash).thenComparing(Point::node));
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        for (int i = 0; i < ring.size(); i++) {
+            points[i] = ring.get(i).hash();
+            owners[i] = ring.get(i).node();
+        }
+    }
+
+    /**
+     * Вузол, що володіє ключем: перша точка кільця за годинниковою стрілкою від хешу ключа.
+     */
+    public String nodeFor(String key) {
+        long hash = hash(key == null ? "" : key);
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+            if (index == points.length) {
+                index = 0;
+            }
+        }
+        return owners[index];
+    }
+
+    static long hash(String value) {
+        long hash = OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * PRIME;
+        }
+        // Фіналізатор MurmurHash3 fmix64: короткі числові ID інакше лягають щільною купою
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private record Point(long hash, String node) {
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.testtask.infrastructure.partition;
+
+import org.example.testtask.domain.model.Trade;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Віддалений шард: надсилає трейди на {@code /api/v1/partition/enrich} сусіднього вузла як NDJSON.
+ */
+public class HttpShardClient implements ShardClient {
+
+    static final String ENRICH_PATH = "/api/v1/partition/enrich";
+
+    private final WebClient webClient;
+    private final Duration timeout;
+
+    public HttpShardClient(WebClient webClient, Duration timeout) {
+        this.webClient = webClient;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public Flux<Trade> enrich(List<Trade> trades) {
+        return webClient.post()
+                .uri(ENRICH_PATH)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(Flux.fromIterable(trades), Trade.class)
+                .retrieve()
+                .bodyToFlux(Trade.class)
+                .timeout(timeout);
+    }
+}
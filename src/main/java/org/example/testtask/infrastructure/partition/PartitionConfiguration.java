@@ -0,0 +1,24 @@
+package org.example.testtask.infrastructure.partition;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "enrichment.partition")
+public class PartitionConfiguration {
+    private boolean enabled = false;
+    // ID цього вузла; при увімкненому режимі має бути ключем у nodes
+    private String nodeId = "local";
+    // ID вузла -> базова адреса, напр. node-b: http://10.0.0.2:8080
+    private Map<String, String> nodes = new LinkedHashMap<>();
+    private int virtualNodes = 128;
+    // Скільки трейдів координатор розкладає по шардах за раз; порядок відновлюється в межах пакета
+    private int batchSize = 1024;
+    private Duration requestTimeout = Duration.ofSeconds(30);
+}
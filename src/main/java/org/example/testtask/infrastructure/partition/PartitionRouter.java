@@ -0,0 +1,58 @@
+package org.example.testtask.infrastructure.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Визначає, який вузол відповідає за productId. Без партиціювання кожен вузол володіє всіма продуктами.
+ */
+@Slf4j
+@Component
+public class PartitionRouter {
+
+    private final boolean enabled;
+    private final String localNode;
+    private final Set<String> nodes;
+    private final ConsistentHashRing ring;
+
+    public PartitionRouter(PartitionConfiguration config) {
+        this.enabled = config.isEnabled();
+        this.localNode = config.getNodeId();
+        this.nodes = Set.copyOf(config.getNodes().keySet());
+        if (!enabled) {
+            this.ring = null;
+            return;
+        }
+        if (!nodes.contains(localNode)) {
+            throw new IllegalStateException("Partition node '" + localNode + "' is not listed in enrichment.partition.nodes "
+                    + nodes);
+        }
+        this.ring = new ConsistentHashRing(nodes, config.getVirtualNodes());
+        log.info("Partitioned enrichment enabled: node {} of {}", localNode, nodes);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getLocalNode() {
+        return localNode;
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    public String nodeFor(String productId) {
+        return enabled ? ring.nodeFor(productId) : localNode;
+    }
+
+    /**
+     * Чи тримає цей вузол продукт у своєму шарді каталогу.
+     */
+    public boolean owns(String productId) {
+        return !enabled || localNode.equals(ring.nodeFor(productId));
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.testtask.infrastructure.partition;
+
+import org.example.testtask.domain.model.Trade;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Збагачує частину пакета трейдів на вузлі, що володіє їхніми продуктами.
+ * Має повернути рівно стільки трейдів і в тому ж порядку, скільки отримав.
+ */
+@FunctionalInterface
+public interface ShardClient {
+
+    Flux<Trade> enrich(List<Trade> trades);
+}
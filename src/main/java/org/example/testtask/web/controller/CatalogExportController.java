@@ -0,0 +1,46 @@
+package org.example.testtask.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.testtask.domain.service.CatalogExportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+
+import java.util.Locale;
+
+/**
+ * Вивантаження всього каталогу продуктів без {@code KEYS}/{@code HGETALL}.
+ */
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+public class CatalogExportController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final CatalogExportService catalogExportService;
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<String>> exportCatalog(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "auto") String source) {
+        CatalogExportService.Format exportFormat = parse(CatalogExportService.Format.class, "format", format);
+        CatalogExportService.Source exportSource = parse(CatalogExportService.Source.class, "source", source);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == CatalogExportService.Format.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .body(catalogExportService.export(exportSource, exportFormat));
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String name, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("Unsupported " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.testtask.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.EnrichmentJob;
+import org.example.testtask.domain.model.JobStatus;
+import org.example.testtask.domain.model.TradeSummary;
+import org.example.testtask.domain.service.EnrichmentJobService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Locale;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/jobs")
+@RequiredArgsConstructor
+public class EnrichmentJobController {
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final EnrichmentJobService jobService;
+
+    @PostMapping(consumes = {MediaType.TEXT_PLAIN_VALUE, "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public Mono<ResponseEntity<JobStatus>> submitJob(@RequestBody Flux<DataBuffer> csvData,
+                                                     @RequestParam(defaultValue = "enrich") String mode) {
+        EnrichmentJob.Mode jobMode;
+        try {
+            jobMode = EnrichmentJob.Mode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ServerWebInputException("Unsupported mode: " + mode));
+        }
+        return jobService.submit(csvData, jobMode)
+                .map(job -> ResponseEntity.accepted()
+                        .location(URI.create("/api/v1/jobs/" + job.getId()))
+                        .body(job.toStatus()));
+    }
+
+    @GetMapping("/{jobId}")
+    public Mono<ResponseEntity<JobStatus>> getJobStatus(@PathVariable String jobId) {
+        return Mono.justOrEmpty(jobService.findJob(jobId))
+                .map(job -> ResponseEntity.ok(job.toStatus()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<Flux<DataBuffer>> getJobResult(@PathVariable String jobId) {
+        EnrichmentJob job = jobService.findJob(jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != EnrichmentJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .body(jobService.readResult(job));
+    }
+
+    @GetMapping("/{jobId}/rejects")
+    public ResponseEntity<Flux<DataBuffer>> getJobRejects(@PathVariable String jobId) {
+        EnrichmentJob job = jobService.findJob(jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != EnrichmentJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .body(jobService.readRejects(job));
+    }
+
+    @GetMapping("/{jobId}/summary")
+    public ResponseEntity<TradeSummary> getJobSummary(@PathVariable String jobId) {
+        EnrichmentJob job = jobService.findJob(jobId).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != EnrichmentJob.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(job.getSummary());
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<Void> deleteJob(@PathVariable String jobId) {
+        if (jobService.deleteJob(jobId)) {
+            return ResponseEntity.noContent().build();
+        }
+        return jobService.findJob(jobId).isPresent()
+                ? ResponseEntity.status(HttpStatus.CONFLICT).build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.testtask.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.service.PartitionedEnrichmentService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Внутрішній маршрут вузла-воркера: координатор шле сюди трейди, чиї продукти належать шарду цього вузла.
+ */
+@RestController
+@RequestMapping("/api/v1/partition")
+@RequiredArgsConstructor
+public class PartitionController {
+
+    private final PartitionedEnrichmentService partitionedEnrichmentService;
+
+    @PostMapping(value = "/enrich", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Trade> enrichShard(@RequestBody Flux<Trade> trades) {
+        return partitionedEnrichmentService.enrichLocal(trades);
+    }
+}
@@ -1,18 +1,44 @@
 package org.example.testtask.web.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.testtask.domain.model.Product;
 import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.model.TradeSummary;
+import org.example.testtask.domain.service.PartitionedEnrichmentService;
 import org.example.testtask.domain.service.ProductService;
+import org.example.testtask.domain.service.TradeDeduplicator;
 import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.buffer.SpillingBuffer;
+import org.example.testtask.infrastructure.catalog.CatalogConfiguration;
+import org.example.testtask.infrastructure.io.DataBufferInputStream;
 import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.infrastructure.parser.RejectLog;
+import org.example.testtask.infrastructure.parser.TradeFilter;
+import org.example.testtask.infrastructure.parser.TradeRowSplicer;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.StringReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -20,73 +46,142 @@ import java.io.StringReader;
 @RequiredArgsConstructor
 public class TradeController {
 
+    private static final int SPLICE_CHUNK_SIZE = 64 * 1024;
+
     private final CsvParser csvParser;
     private final TradeService tradeService;
     private final ProductService productService;
+    private final SpillingBuffer<Trade> tradeSpillBuffer;
+    private final TradeDeduplicator tradeDeduplicator;
+    private final CatalogConfiguration catalogConfig;
+    private final PartitionedEnrichmentService partitionedEnrichment;
+    private final TradeRowSplicer rowSplicer;
 
+    /**
+     * Необов'язкові {@code from}/{@code to} ({@code yyyyMMdd}, включно), {@code currency} і {@code productId}
+     * фільтрують трейди ще в парсері, до розбору дати й ціни.
+     */
     @PostMapping(value = "/enrich", consumes = MediaType.TEXT_PLAIN_VALUE)
-    public Flux<Trade> enrichTradeData(@RequestBody String csvData) {
-        return Flux.using(
-                () -> new StringReader(csvData),
+    public Flux<Trade> enrichTradeData(@RequestBody Flux<DataBuffer> csvData,
+                                       @RequestParam(required = false) String from,
+                                       @RequestParam(required = false) String to,
+                                       @RequestParam(required = false) List<String> currency,
+                                       @RequestParam(required = false) List<String> productId) {
+        // Повільний клієнт не стримує парсер: надлишок результатів спулиться на диск
+        return tradeSpillBuffer.buffer(Flux.using(
+                () -> bodyReader(csvData),
                 reader -> {
-                    Flux<Trade> trades = csvParser.parseTrades(reader);
+                    // Фільтр рахує відсіяні рядки, тож кожна підписка отримує власний
+                    TradeFilter filter = tradeFilter(from, to, currency, productId);
+                    Flux<Trade> trades = filter.isEmpty()
+                            ? csvParser.parseTrades(reader)
+                            : csvParser.parseTrades(reader, new RejectLog("trade"), filter);
                     if (trades == null) {
                         log.error("CsvParser returned null instead of Flux<Trade>");
                         return Flux.empty();
                     }
-                    return trades.flatMap(trade -> {
-                        if (trade == null) {
-                            log.error("Null trade encountered in stream");
-                            return Mono.empty();
-                        }
-                        return tradeService.enrichTradeWithProduct(trade);
-                    });
+                    // У партиційованому режимі трейди розходяться по вузлах-власниках шардів каталогу
+                    return partitionedEnrichment.enrich(tradeDeduplicator.deduplicate(trades));
                 },
-                reader -> {
-                    try {
-                        reader.close();
-                    } catch (Exception e) {
-                        log.error("Error closing reader", e);
-                    }
-                }
-        );
+                TradeController::closeReader
+        ).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * Режим splice: CSV у CSV без розбору трейдів. Рядки повертаються байт у байт з дописаною колонкою
+     * {@code productName}; дати й ціни не перевіряються, дублікати не відсіюються.
+     */
+    @PostMapping(value = "/enrich/splice", consumes = {MediaType.TEXT_PLAIN_VALUE, "text/csv"}, produces = "text/csv")
+    public Flux<DataBuffer> spliceTradeData(@RequestBody Flux<DataBuffer> csvData) {
+        if (partitionedEnrichment.isPartitioned()) {
+            // Splice бачить лише локальний каталог, а у партиційованому режимі це тільки шард вузла
+            return Flux.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED,
+                    "Splice mode is not supported with partitioning"));
+        }
+        return Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try (InputStream in = new DataBufferInputStream(csvData)) {
+                rowSplicer.splice(in, out, tradeService::resolveProductName, new RejectLog("trade"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DefaultDataBufferFactory.sharedInstance, task -> Schedulers.boundedElastic().schedule(task), SPLICE_CHUNK_SIZE));
+    }
+
+    /**
+     * Збагачує трейди і замість рядків повертає агрегати ціни по продукту, валюті та даті.
+     */
+    @PostMapping(value = "/enrich/summary", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public Mono<TradeSummary> summarizeTradeData(@RequestBody Flux<DataBuffer> csvData,
+                                                 @RequestParam(required = false) String from,
+                                                 @RequestParam(required = false) String to,
+                                                 @RequestParam(required = false) List<String> currency,
+                                                 @RequestParam(required = false) List<String> productId) {
+        return Mono.defer(() -> {
+            RejectLog rejects = new RejectLog("trade");
+            TradeFilter filter = tradeFilter(from, to, currency, productId);
+            Flux<Trade> trades = Flux.using(() -> bodyReader(csvData),
+                            reader -> csvParser.parseTrades(reader, rejects, filter),
+                            TradeController::closeReader)
+                    .subscribeOn(Schedulers.boundedElastic());
+            return tradeService.aggregateTrades(tradeDeduplicator.deduplicate(trades), Schedulers.DEFAULT_POOL_SIZE)
+                    .map(summary -> summary.withRejects(rejects.toReport()).withFilter(filter.toReport()));
+        });
     }
 
 
+    /**
+     * Продукти з каталогу віддаються з ETag версії каталогу: повторний запит з {@code If-None-Match}
+     * отримує 304 після перевірки в пам'яті, не звертаючись до кешів.
+     */
     @GetMapping("/product/{productId}")
-    public Mono<String> getProductNameById(@PathVariable String productId) {
+    public Mono<ResponseEntity<String>> getProductNameById(@PathVariable String productId, ServerWebExchange exchange) {
+        String etag = productService.catalogTag(productId).map(tag -> "\"" + tag + "\"").orElse(null);
+        if (etag != null && exchange.checkNotModified(etag)) {
+            return Mono.empty();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (etag != null) {
+            response.eTag(etag).cacheControl(CacheControl.maxAge(catalogConfig.getLookupMaxAge()).mustRevalidate());
+        } else {
+            response.cacheControl(CacheControl.noCache());
+        }
         return productService.getProductById(productId)
                 .map(Product::getProductName)
-                .defaultIfEmpty("Product not found for ID: " + productId);
+                .defaultIfEmpty("Product not found for ID: " + productId)
+                .map(response::body);
     }
 
 
+    /**
+     * Пакетний пошук: приймає JSON-масив ID і стрімить продукти в тому ж порядку,
+     * масивом JSON або NDJSON залежно від {@code Accept}.
+     * Тіло читається як {@code Flux<JsonNode>}: так Jackson віддає елементи масиву по одному,
+     * тоді як {@code Flux<String>} отримав би весь масив одним рядком.
+     */
+    @PostMapping(value = "/products", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Product> getProductsByIds(@RequestBody Flux<JsonNode> productIds) {
+        return productService.getProductsByIds(productIds.map(JsonNode::asText));
+    }
+
     @PostMapping(value = "/products", consumes = MediaType.TEXT_PLAIN_VALUE)
-    public Mono<Void> uploadProducts(@RequestBody String csvData) {
+    public Mono<Void> uploadProducts(@RequestBody Flux<DataBuffer> csvData) {
         log.info("Received products CSV data for processing");
 
-        if (csvData == null || csvData.trim().isEmpty()) {
-            log.error("Received empty CSV data");
-            return Mono.empty();
-        }
-
-        return Mono.just(csvData)
-                .flatMap(data -> Flux.using(
-                                () -> new StringReader(data),
-                                csvParser::parseProducts,
-                                reader -> {
-                                    try {
-                                        reader.close();
-                                    } catch (Exception e) {
-                                        log.error("Error closing reader", e);
-                                    }
-                                }
-                        )
-                        .collectList()
-                        .flatMap(products -> {
-                            log.info("Parsed {} products, loading to service", products.size());
-                            return productService.loadProducts(Flux.fromIterable(products));
-                        }))
+        return Flux.using(
+                        () -> bodyReader(csvData),
+                        csvParser::parseProducts,
+                        TradeController::closeReader
+                )
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchOnFirst((first, products) -> {
+                    if (!first.hasValue()) {
+                        log.error("Received empty CSV data");
+                        return products.then();
+                    }
+                    return productService.loadProducts(products);
+                })
+                .then()
                 .onErrorResume(e -> {
                     log.error("Error processing products: {}", e.getMessage(), e);
                     return Mono.empty();
@@ -94,4 +189,27 @@ public class TradeController {
                 .doOnSuccess(v -> log.info("Successfully completed products upload"))
                 .doOnError(e -> log.error("Failed to upload products: {}", e.getMessage()));
     }
+
+    private static TradeFilter tradeFilter(String from, String to, List<String> currencies, List<String> productIds) {
+        try {
+            return TradeFilter.of(from, to, currencies, productIds);
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException(e.getMessage());
+        }
+    }
+
+    /**
+     * Читає тіло запиту потоково, не збираючи його в один рядок.
+     */
+    private static Reader bodyReader(Flux<DataBuffer> csvData) {
+        return new InputStreamReader(new DataBufferInputStream(csvData), StandardCharsets.UTF_8);
+    }
+
+    private static void closeReader(Reader reader) {
+        try {
+            reader.close();
+        } catch (Exception e) {
+            log.error("Error closing reader", e);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package org.example.testtask.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.service.TradeDeduplicator;
+import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.infrastructure.parser.RejectLog;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+
+/**
+ * RSocket-маршрути для стрімінгу трейдів у обидва боки.
+ * На відміну від HTTP, попит клієнта ({@code REQUEST_N}) доходить через мережу до парсера,
+ * тож відправник не може випередити вузол і проміжний спул на диск не потрібен.
+ */
+@Slf4j
+@Controller
+@RequiredArgsConstructor
+public class TradeStreamController {
+
+    /**
+     * Скільки трейдів одночасно чекають на продукт; разом з попитом клієнта обмежує вхідний потік.
+     */
+    static final int MAX_IN_FLIGHT = 64;
+
+    private final CsvParser csvParser;
+    private final TradeService tradeService;
+    private final TradeDeduplicator tradeDeduplicator;
+
+    /**
+     * Request-channel: клієнт шле цілі рядки CSV (по одному чи пачкою в payload), сервер повертає збагачені трейди.
+     * Порядок відповіді збігається з порядком рядків.
+     */
+    @MessageMapping("trades.enrich")
+    public Flux<Trade> enrichChannel(Flux<String> rows) {
+        return Flux.defer(() -> {
+            Flux<Trade> trades = csvParser.parseTradeRows(rows, new RejectLog("trade"));
+            return tradeDeduplicator.deduplicate(trades)
+                    .flatMapSequential(tradeService::enrichTradeWithProduct, MAX_IN_FLIGHT, 1);
+        }).doOnCancel(() -> log.debug("Trade channel cancelled by client"));
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.testtask.web.filter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.infrastructure.admission.AdaptiveConcurrencyLimiter;
+import org.example.testtask.infrastructure.admission.AdmissionConfiguration;
+import org.example.testtask.infrastructure.admission.ConcurrencyLimitExceededException;
+import org.example.testtask.infrastructure.admission.MemoryBudget;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Контроль допуску для важких запитів: резервує пам'ять з бюджету вузла під тіло запиту
+ * і стан розбору, а потім бере дозвіл в адаптивного ліміту паралельності.
+ * Перевантаження відповідає 503/429 замість того, щоб довести JVM до OOM.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class AdmissionControlFilter implements WebFilter {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdmissionConfiguration config;
+    private final MemoryBudget memoryBudget;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final EnrichmentMetrics metrics;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!config.isEnabled() || !isGuarded(request)) {
+            return chain.filter(exchange);
+        }
+
+        long reservation = estimateReservation(request);
+        if (reservation > memoryBudget.getTotalBytes()) {
+            metrics.admissionRejected(EnrichmentMetrics.REJECT_TOO_LARGE);
+            return reject(exchange, HttpStatus.PAYLOAD_TOO_LARGE);
+        }
+        if (!memoryBudget.tryReserve(reservation)) {
+            metrics.admissionRejected(EnrichmentMetrics.REJECT_MEMORY);
+            log.warn("Memory budget exhausted, rejecting {} ({} bytes requested, {} of {} reserved)",
+                    request.getPath(), reservation, memoryBudget.getReservedBytes(), memoryBudget.getTotalBytes());
+            return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        return concurrencyLimiter.acquire()
+                .flatMap(permit -> chain.filter(exchange)
+                        .doFinally(signal -> permit.release(outcomeOf(signal))))
+                .onErrorResume(ConcurrencyLimitExceededException.class, e -> {
+                    metrics.admissionRejected(EnrichmentMetrics.REJECT_CONCURRENCY);
+                    return reject(exchange, HttpStatus.TOO_MANY_REQUESTS);
+                })
+                .doFinally(signal -> memoryBudget.release(reservation));
+    }
+
+    private boolean isGuarded(ServerHttpRequest request) {
+        if (request.getMethod() != HttpMethod.POST) {
+            return false;
+        }
+        String path = request.getPath().value();
+        return config.getGuardedPaths().contains(path);
+    }
+
+    /**
+     * Фільтр стоїть перед {@link RequestDecompressionFilter}, щоб відмовляти ще до розпакування,
+     * тому для стиснутого тіла {@code Content-Length} переводиться в очікуваний розпакований розмір.
+     */
+    private long estimateReservation(ServerHttpRequest request) {
+        long contentLength = request.getHeaders().getContentLength();
+        if (contentLength < 0) {
+            return (long) (config.getUnknownLengthReservation().toBytes() * config.getMemoryAmplification());
+        }
+        double bytes = isCompressed(request) ? contentLength * config.getCompressionRatio() : contentLength;
+        return (long) (bytes * config.getMemoryAmplification());
+    }
+
+    private static boolean isCompressed(ServerHttpRequest request) {
+        String encoding = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        return encoding != null && !encoding.isBlank() && !encoding.trim().equalsIgnoreCase("identity");
+    }
+
+    private static AdaptiveConcurrencyLimiter.Outcome outcomeOf(SignalType signal) {
+        return switch (signal) {
+            case ON_COMPLETE -> AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+            case ON_ERROR -> AdaptiveConcurrencyLimiter.Outcome.DROPPED;
+            default -> AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+        };
+    }
+
+    private static Mono<Void> reject(ServerWebExchange exchange, HttpStatus status) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(status);
+        if (status != HttpStatus.PAYLOAD_TOO_LARGE) {
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        }
+        return response.setComplete();
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.testtask.web.filter;
+
+import lombok.RequiredArgsConstructor;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * Рахує запити до API, які зараз обробляються.
+ */
+@Component
+@RequiredArgsConstructor
+public class InFlightRequestsFilter implements WebFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    private final EnrichmentMetrics metrics;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!exchange.getRequest().getPath().value().startsWith(API_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        return chain.filter(exchange)
+                .doOnSubscribe(subscription -> metrics.requestStarted())
+                .doFinally(signal -> metrics.requestFinished());
+    }
+}
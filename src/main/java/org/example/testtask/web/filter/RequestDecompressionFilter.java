@@ -0,0 +1,117 @@
+package org.example.testtask.web.filter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.infrastructure.io.DataBufferInputStream;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Потоково розпаковує тіла запитів з {@code Content-Encoding: gzip} або {@code deflate}.
+ * Розпакований вміст ніколи не збирається повністю: контролер отримує його чанками по мірі читання.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class RequestDecompressionFilter implements WebFilter {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String encoding = request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding == null || encoding.isBlank() || encoding.equalsIgnoreCase("identity")) {
+            return chain.filter(exchange);
+        }
+
+        String normalized = encoding.trim().toLowerCase(Locale.ROOT);
+        if (!normalized.equals("gzip") && !normalized.equals("x-gzip") && !normalized.equals("deflate")) {
+            log.warn("Unsupported request Content-Encoding '{}' for {}", encoding, request.getPath());
+            exchange.getResponse().setStatusCode(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+            return exchange.getResponse().setComplete();
+        }
+
+        DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
+        ServerHttpRequest decompressed = new ServerHttpRequestDecorator(request) {
+            @Override
+            public HttpHeaders getHeaders() {
+                HttpHeaders headers = new HttpHeaders();
+                headers.putAll(super.getHeaders());
+                headers.remove(HttpHeaders.CONTENT_ENCODING);
+                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                return headers;
+            }
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return decompress(super.getBody(), normalized, bufferFactory);
+            }
+        };
+        return chain.filter(exchange.mutate().request(decompressed).build());
+    }
+
+    static Flux<DataBuffer> decompress(Flux<DataBuffer> body, String encoding, DataBufferFactory bufferFactory) {
+        return DataBufferUtils.readInputStream(() -> {
+                    DataBufferInputStream compressed = new DataBufferInputStream(body);
+                    try {
+                        return decoder(compressed, encoding);
+                    } catch (IOException e) {
+                        compressed.close();
+                        throw e;
+                    }
+                }, bufferFactory, CHUNK_SIZE)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static InputStream decoder(InputStream compressed, String encoding) throws IOException {
+        if (!encoding.equals("deflate")) {
+            return new GZIPInputStream(compressed, CHUNK_SIZE);
+        }
+        // "deflate" за RFC 9110 — це zlib-обгортка, але частина клієнтів шле сирий deflate
+        PushbackInputStream input = new PushbackInputStream(compressed, 2);
+        byte[] header = input.readNBytes(2);
+        input.unread(header);
+        Inflater inflater = new Inflater(!isZlibHeader(header));
+        return new InflaterInputStream(input, inflater, CHUNK_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    private static boolean isZlibHeader(byte[] header) {
+        if (header.length < 2) {
+            return true;
+        }
+        int cmf = header[0] & 0xFF;
+        int flg = header[1] & 0xFF;
+        return (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.testtask.web.health;
+
+import lombok.RequiredArgsConstructor;
+import org.example.testtask.domain.service.CatalogPreloader;
+import org.example.testtask.domain.service.ProductCatalogService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Стан прогріву каталогу для readiness-групи: OUT_OF_SERVICE, доки каталог не завантажено.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogHealthIndicator implements HealthIndicator {
+
+    private final CatalogPreloader preloader;
+    private final ProductCatalogService catalogService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = preloader.getState() == CatalogPreloader.State.READY
+                ? Health.up()
+                : Health.outOfService();
+        builder.withDetail("state", preloader.getState())
+                .withDetail("products", catalogService.current().size())
+                .withDetail("version", catalogService.current().getVersion())
+                .withDetail("source", preloader.getSource())
+                .withDetail("loadMillis", preloader.getLoadMillis());
+        if (preloader.getFailure() != null) {
+            builder.withDetail("error", preloader.getFailure());
+        }
+        return builder.build();
+    }
+}
@@ -3,7 +3,7 @@ package org.example.testtask;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "enrichment.catalog.snapshot-enabled=false")
 class TestTaskApplicationTests {
 
     @Test
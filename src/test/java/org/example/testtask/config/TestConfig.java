@@ -1,14 +1,22 @@
 package org.example.testtask.config;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.service.ProductCatalogService;
 import org.example.testtask.domain.service.ProductService;
 import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.cache.BlockingRedisExecutor;
 import org.example.testtask.infrastructure.cache.CacheConfiguration;
+import org.example.testtask.infrastructure.cache.ProductBuckets;
+import org.example.testtask.infrastructure.cache.ProductWriteBehindQueue;
 import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
 import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.support.TestCatalogs;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
 @TestConfiguration
 public class TestConfig {
@@ -16,25 +24,43 @@ public class TestConfig {
     @Bean
     @Primary
     public CsvParser csvParser() {
-        return new CsvParser();
+        return new CsvParser(enrichmentMetrics());
     }
 
     @Bean
     @Primary
     public TradeService tradeService() {
-        return new TradeService();
+        return new TradeService(enrichmentMetrics(), productCatalogService());
     }
 
     @Bean
     @Primary
     public ProductService productService() {
-        return new ProductService(redisProductCache());
+        return new ProductService(redisProductCache(), productCatalogService(), enrichmentMetrics(), productWriteBehindQueue());
+    }
+
+    @Bean
+    @Primary
+    public ProductCatalogService productCatalogService() {
+        return TestCatalogs.inMemory(redisProductCache());
     }
 
     @Bean
     @Primary
     public RedisProductCache redisProductCache() {
-        return new RedisProductCache(redisTemplate(), cacheConfiguration());
+        return new RedisProductCache(redisTemplate(), cacheConfiguration(), enrichmentMetrics(), blockingRedisExecutor(),
+                productBuckets());
+    }
+
+    @Bean
+    public ProductWriteBehindQueue productWriteBehindQueue() {
+        return new ProductWriteBehindQueue(redisProductCache(), cacheConfiguration(), enrichmentMetrics(),
+                new SimpleMeterRegistry());
+    }
+
+    @Bean
+    public ProductBuckets productBuckets() {
+        return new ProductBuckets(new StringRedisTemplate(), cacheConfiguration());
     }
 
     @Bean
@@ -42,6 +68,16 @@ public class TestConfig {
         return new RedisTemplate<>();
     }
 
+    @Bean
+    public BlockingRedisExecutor blockingRedisExecutor() {
+        return new BlockingRedisExecutor(cacheConfiguration());
+    }
+
+    @Bean
+    public EnrichmentMetrics enrichmentMetrics() {
+        return new EnrichmentMetrics(new SimpleMeterRegistry());
+    }
+
     @Bean
     public CacheConfiguration cacheConfiguration() {
         return new CacheConfiguration();
@@ -0,0 +1,90 @@
+package org.example.testtask.infrastructure.admission;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void shouldQueueAndHandOffPermitWhenLimitReached() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4, 1, Duration.ofSeconds(5), 2.0);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire().block();
+
+        AtomicReference<AdaptiveConcurrencyLimiter.Permit> second = new AtomicReference<>();
+        limiter.acquire().subscribe(second::set);
+        assertEquals(1, limiter.getQueued());
+
+        first.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED);
+
+        assertTrue(second.get() != null, "Queued request should receive the released permit");
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4, 0, Duration.ofSeconds(5), 2.0);
+        limiter.acquire().block();
+
+        StepVerifier.create(limiter.acquire())
+                .expectError(ConcurrencyLimitExceededException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldRejectAfterQueueTimeout() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 4, 1, Duration.ofMillis(50), 2.0);
+        limiter.acquire().block();
+
+        StepVerifier.create(limiter.acquire())
+                .expectError(ConcurrencyLimitExceededException.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void shouldBackOffOnDroppedRequests() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 1, 64, 0, Duration.ofSeconds(1), 2.0);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().block().release(AdaptiveConcurrencyLimiter.Outcome.DROPPED);
+        }
+
+        assertTrue(limiter.getLimit() < 20);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void shouldGrowLimitWhileSaturatedAndLatencyIsStable() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 64, 0, Duration.ofSeconds(1), 2.0);
+
+        for (int round = 0; round < 20; round++) {
+            int limit = limiter.getLimit();
+            AdaptiveConcurrencyLimiter.Permit[] permits = new AdaptiveConcurrencyLimiter.Permit[limit];
+            for (int i = 0; i < limit; i++) {
+                permits[i] = limiter.acquire().block();
+            }
+            for (AdaptiveConcurrencyLimiter.Permit permit : permits) {
+                permit.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS);
+            }
+        }
+
+        assertTrue(limiter.getLimit() > 2);
+    }
+
+    @Test
+    void memoryBudgetShouldRefuseReservationsBeyondTotal() {
+        MemoryBudget budget = new MemoryBudget(100);
+
+        assertTrue(budget.tryReserve(60));
+        assertEquals(false, budget.tryReserve(50));
+        budget.release(60);
+        assertTrue(budget.tryReserve(100));
+    }
+}
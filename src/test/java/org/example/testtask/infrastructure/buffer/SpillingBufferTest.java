@@ -0,0 +1,201 @@
+package org.example.testtask.infrastructure.buffer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpillingBufferTest {
+
+    private static final SpillCodec<Integer> INT_CODEC = new SpillCodec<>() {
+        @Override
+        public void write(Integer item, DataOutput out) throws IOException {
+            out.writeInt(item);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    @TempDir
+    Path spillDir;
+
+    @Test
+    void shouldSpillToDiskAndReplayInOrderForSlowConsumer() {
+        SpillingBuffer<Integer> buffer = buffer(4, 3, DataSize.ofMegabytes(1));
+        AtomicInteger produced = new AtomicInteger();
+        List<Integer> expected = IntStream.range(0, 100).boxed().toList();
+
+        StepVerifier.create(buffer.buffer(Flux.fromIterable(expected).doOnNext(i -> produced.incrementAndGet())), 0)
+                .then(() -> await(() -> produced.get() == 100))
+                .then(() -> assertTrue(spillFiles() > 0, "Items beyond the memory limit should be spilled"))
+                .thenRequest(10)
+                .expectNextSequence(expected.subList(0, 10))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextSequence(expected.subList(10, 100))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        await(() -> spillFiles() == 0);
+    }
+
+    @Test
+    void shouldDeleteSpillFilesWhenConsumerCancels() {
+        SpillingBuffer<Integer> buffer = buffer(4, 3, DataSize.ofMegabytes(1));
+        AtomicInteger produced = new AtomicInteger();
+
+        StepVerifier.create(buffer.buffer(Flux.range(0, 50).doOnNext(i -> produced.incrementAndGet())), 0)
+                .then(() -> await(() -> produced.get() == 50))
+                .thenRequest(5)
+                .expectNext(0, 1, 2, 3, 4)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        await(() -> spillFiles() == 0);
+    }
+
+    @Test
+    void shouldPauseProducerWhenSpillLimitIsReached() {
+        SpillingBuffer<Integer> buffer = buffer(2, 2, DataSize.ofBytes(1));
+        AtomicInteger produced = new AtomicInteger();
+
+        StepVerifier.create(buffer.buffer(Flux.range(0, 200).doOnNext(i -> produced.incrementAndGet())), 0)
+                .then(() -> await(() -> produced.get() == 8))
+                .then(() -> sleep(100))
+                .then(() -> assertEquals(8, produced.get(), "Producer should stop at the first prefetch batch"))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextSequence(IntStream.range(0, 200).boxed().toList())
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shouldStopReadingCsvWhenSpillLimitIsReached() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CsvParser parser = new CsvParser(new EnrichmentMetrics(registry));
+        StringBuilder csv = new StringBuilder("date,productId,currency,price\n");
+        for (int i = 0; i < 10_000; i++) {
+            csv.append("20240101,").append(i).append(",USD,1.5\n");
+        }
+        SpillConfiguration config = new SpillConfiguration();
+        config.setMemoryRows(2);
+        config.setSegmentRows(2);
+        config.setPrefetch(8);
+        config.setSpillDir(spillDir);
+        config.setMaxSpillSize(DataSize.ofBytes(1));
+        SpillingBuffer<Trade> buffer = new SpillingBuffer<>(new TradeSpillCodec(), config,
+                Schedulers.boundedElastic(), new EnrichmentMetrics(new SimpleMeterRegistry()));
+        Counter parsed = registry.get("enrichment.rows.parsed").tag("type", "trade").counter();
+
+        StepVerifier.create(buffer.buffer(parser.parseTrades(new StringReader(csv.toString()))), 0)
+                .then(() -> await(() -> parsed.count() == 8))
+                .then(() -> sleep(100))
+                // Запаркований буфер зупиняє саме читання файлу: розібрано лише перший запит prefetch
+                .then(() -> assertEquals(8.0, parsed.count(), "Parser should not read ahead of demand"))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(10_000)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shouldDeliverBufferedItemsBeforeError() {
+        SpillingBuffer<Integer> buffer = buffer(2, 2, DataSize.ofMegabytes(1));
+
+        StepVerifier.create(buffer.buffer(Flux.range(0, 5).concatWith(Flux.error(new IllegalStateException("boom")))))
+                .expectNext(0, 1, 2, 3, 4)
+                .expectErrorMessage("boom")
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shouldRoundTripTradesThroughSpillCodec() throws IOException {
+        TradeSpillCodec codec = new TradeSpillCodec();
+        Trade trade = Trade.builder()
+                .date(LocalDate.of(2024, 1, 15))
+                .productId("42")
+                .productName("Treasury Bills, Domestic")
+                .currency("EUR")
+                .price(new BigDecimal("10.50"))
+                .build();
+        Trade partial = Trade.partialBuilder().productId("7").currency("USD").build();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            codec.write(trade, out);
+            codec.write(partial, out);
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(trade, codec.read(in));
+        assertEquals(partial, codec.read(in));
+    }
+
+    private SpillingBuffer<Integer> buffer(int memoryRows, int segmentRows, DataSize maxSpillSize) {
+        SpillConfiguration config = new SpillConfiguration();
+        config.setMemoryRows(memoryRows);
+        config.setSegmentRows(segmentRows);
+        config.setPrefetch(8);
+        config.setSpillDir(spillDir);
+        config.setMaxSpillSize(maxSpillSize);
+        return new SpillingBuffer<>(INT_CODEC, config, Schedulers.boundedElastic(),
+                new EnrichmentMetrics(new SimpleMeterRegistry()));
+    }
+
+    private long spillFiles() {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.count();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Condition not met within 5s");
+            }
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.testtask.infrastructure.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlockingRedisExecutorTest {
+
+    @Test
+    void shouldRunBlockingCallsOnVirtualThreads() {
+        BlockingRedisExecutor executor = executor(CacheConfiguration.ExecutionMode.VIRTUAL_THREADS);
+        try {
+            Thread thread = executor.call(Thread::currentThread).block(Duration.ofSeconds(5));
+
+            assertTrue(thread.isVirtual());
+            assertTrue(thread.getName().startsWith("redis-"));
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void shouldNotBeLimitedByPlatformThreadsWhileBlocking() {
+        BlockingRedisExecutor executor = executor(CacheConfiguration.ExecutionMode.VIRTUAL_THREADS);
+        try {
+            long start = System.nanoTime();
+            Long calls = Flux.range(0, 1_000)
+                    .flatMap(i -> executor.call(() -> {
+                        Thread.sleep(100);
+                        return i;
+                    }), 1_000)
+                    .count()
+                    .block(Duration.ofSeconds(10));
+
+            assertEquals(1_000, calls);
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5_000,
+                    "1000 concurrent 100 ms calls should overlap instead of queueing");
+        } finally {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void shouldOffloadToBoundedElastic() {
+        BlockingRedisExecutor executor = executor(CacheConfiguration.ExecutionMode.BOUNDED_ELASTIC);
+
+        String thread = executor.call(() -> Thread.currentThread().getName()).block(Duration.ofSeconds(5));
+
+        assertTrue(thread.startsWith("boundedElastic-"), thread);
+    }
+
+    @Test
+    void shouldStayOnCallerThread() {
+        BlockingRedisExecutor executor = executor(CacheConfiguration.ExecutionMode.CALLER);
+        Thread caller = Thread.currentThread();
+
+        Thread thread = executor.call(Thread::currentThread).block();
+        Boolean completed = executor.run(() -> { }).then(Mono.just(true)).block();
+
+        assertEquals(caller, thread);
+        assertTrue(completed);
+        assertFalse(thread.isVirtual());
+    }
+
+    private static BlockingRedisExecutor executor(CacheConfiguration.ExecutionMode mode) {
+        CacheConfiguration config = new CacheConfiguration();
+        config.setExecutionMode(mode);
+        return new BlockingRedisExecutor(config);
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.testtask.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.support.InMemoryRedisTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductBucketsTest {
+
+    private static final int BUCKETS = 16;
+
+    private final InMemoryRedisTemplate redis = new InMemoryRedisTemplate();
+    private CacheConfiguration config;
+    private ProductBuckets buckets;
+
+    @BeforeEach
+    void setUp() {
+        config = new CacheConfiguration();
+        config.setExecutionMode(CacheConfiguration.ExecutionMode.CALLER);
+        config.setLayout(CacheConfiguration.Layout.BUCKETED);
+        config.setBucketCount(BUCKETS);
+        buckets = new ProductBuckets(redis.strings(), config);
+    }
+
+    @Test
+    void shouldDeriveBucketCountFromExpectedCatalogSize() {
+        config.setBucketCount(0);
+        config.setExpectedProducts(5_000);
+
+        assertEquals(50, config.resolveBucketCount());
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            keys.add(buckets.bucketKey(String.valueOf(i)));
+        }
+        assertEquals(50, keys.size());
+    }
+
+    @Test
+    void shouldSpreadProductsOverSmallHashesWithPlainStringValues() {
+        Map<String, Product> products = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            products.put(String.valueOf(i), new Product(String.valueOf(i), "Product " + i));
+        }
+        newCache().bulkCache(products);
+
+        // Один ключ на бакет замість ключа на продукт, і кожен бакет достатньо малий для listpack
+        assertEquals(BUCKETS, redis.size());
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            int size = redis.hashSize(ProductBuckets.BUCKET_PREFIX + bucket);
+            assertTrue(size > 0 && size < 128, "bucket " + bucket + " holds " + size);
+        }
+        assertInstanceOf(String.class, redis.opsForHash().get(buckets.bucketKey("42"), "42"));
+    }
+
+    @Test
+    void shouldServeSingleAndBatchLookupsFromBuckets() {
+        newCache().bulkCache(Map.of(
+                "1", new Product("1", "First"),
+                "2", new Product("2", "Second"),
+                "3", new Product("3", "Third")));
+
+        // У свіжого кешу локальний рівень порожній, тож кожен пошук доходить до бакетів
+        assertEquals(Optional.of(new Product("2", "Second")), newCache().getProduct("2"));
+        Map<String, Product> found = newCache().getProducts(List.of("1", "3", "missing", "1"));
+        assertEquals(Map.of("1", new Product("1", "First"), "3", new Product("3", "Third")), found);
+
+        newCache().invalidateCache("2");
+        assertEquals(Optional.empty(), newCache().getProduct("2"));
+    }
+
+    @Test
+    void shouldKeepCatalogInBucketsInsteadOfProductsHash() {
+        Map<String, Product> products = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            products.put(String.valueOf(i), new Product(String.valueOf(i), "Product " + i));
+        }
+        newCache().saveProductBatch(products);
+        newCache().saveProduct(new Product("extra", "Extra"));
+
+        // Завантаження і флаші write-behind пишуть у бакети, а не JDK-серіалізовані продукти в хеш products
+        assertEquals(0, redis.hashSize("products"));
+        assertEquals(BUCKETS, redis.size());
+        Map<String, Product> loaded = newCache().loadAllProducts();
+        assertEquals(1001, loaded.size());
+        assertEquals(new Product("extra", "Extra"), loaded.get("extra"));
+        assertEquals(1001, newCache().scanProducts(10).count().block());
+        assertEquals(Optional.of(new Product("42", "Product 42")), newCache().getProduct("42"));
+    }
+
+    private RedisProductCache newCache() {
+        return new RedisProductCache(redis, config, new EnrichmentMetrics(new SimpleMeterRegistry()),
+                new BlockingRedisExecutor(config), buckets);
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.testtask.infrastructure.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.support.InMemoryRedisTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ProductWriteBehindQueueTest {
+
+    private static final String PRODUCTS_KEY = "products";
+
+    private final InMemoryRedisTemplate redis = new InMemoryRedisTemplate();
+    private ProductWriteBehindQueue queue;
+
+    @Test
+    void shouldCoalesceUpdatesAndAdvanceWatermark() {
+        RedisProductCache cache = cache();
+        queue = queue(cache, Duration.ofMillis(10));
+
+        queue.enqueue(List.of(new Product("1", "old"), new Product("2", "second"))).block();
+        long accepted = queue.enqueue(List.of(new Product("1", "new"))).block();
+
+        assertEquals(3, accepted);
+        assertTrue(queue.getPendingCount() <= 2);
+        queue.flushNow().block(Duration.ofSeconds(5));
+
+        assertEquals(accepted, queue.getDurableSequence());
+        assertEquals(0, queue.getPendingCount());
+        assertEquals("new", ((Product) redis.opsForHash().get(PRODUCTS_KEY, "1")).getProductName());
+        assertTrue(cache.getCatalogVersion() > 0);
+    }
+
+    @Test
+    void shouldRetryFailedBatchUntilRedisAcceptsIt() {
+        RedisProductCache cache = spy(cache());
+        doThrow(new QueryTimeoutException("redis down"))
+                .doThrow(new QueryTimeoutException("redis down"))
+                .doCallRealMethod()
+                .when(cache).saveProductBatch(anyMap());
+        queue = queue(cache, Duration.ofMillis(5));
+
+        long accepted = queue.enqueue(List.of(new Product("1", "first"))).block();
+        queue.awaitDurable(accepted).block(Duration.ofSeconds(5));
+
+        verify(cache, atLeast(3)).saveProductBatch(anyMap());
+        assertEquals(1, redis.opsForHash().size(PRODUCTS_KEY));
+    }
+
+    @Test
+    void shouldDrainQueueOnShutdown() throws InterruptedException {
+        queue = queue(cache(), Duration.ofHours(1));
+
+        queue.enqueue(List.of(new Product("1", "first"), new Product("2", "second"))).block();
+        assertEquals(0, redis.opsForHash().size(PRODUCTS_KEY));
+
+        queue.destroy();
+
+        assertEquals(2, redis.opsForHash().size(PRODUCTS_KEY));
+        assertEquals(queue.getAcceptedSequence(), queue.getDurableSequence());
+    }
+
+    @Test
+    void shouldNeverHoldMoreThanCapacity() {
+        RedisProductCache cache = spy(cache());
+        AtomicInteger maxPending = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxPending.accumulateAndGet(queue.getPendingCount(), Math::max);
+            return invocation.callRealMethod();
+        }).when(cache).saveProductBatch(anyMap());
+        queue = queue(cache, Duration.ofMillis(5), 3);
+
+        List<Product> products = IntStream.range(0, 20)
+                .mapToObj(i -> new Product(String.valueOf(i), "Product " + i))
+                .toList();
+        long accepted = queue.enqueue(products).block(Duration.ofSeconds(5));
+        queue.awaitDurable(accepted).block(Duration.ofSeconds(5));
+
+        // Завантаження у 20 продуктів проходить через чергу на 3, не переповнюючи її
+        assertEquals(20, accepted);
+        assertTrue(maxPending.get() <= 3, "Pending products exceeded capacity: " + maxPending.get());
+        assertEquals(20, redis.opsForHash().size(PRODUCTS_KEY));
+    }
+
+    @Test
+    void shouldNotWriteInlineWhileFlusherIsStillRunning() throws InterruptedException {
+        RedisProductCache cache = spy(cache());
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            inFlight.countDown();
+            release.await();
+            return invocation.callRealMethod();
+        }).when(cache).saveProductBatch(anyMap());
+        CacheConfiguration config = config(Duration.ofMillis(5), 100);
+        config.getWriteBehind().setShutdownTimeout(Duration.ofMillis(100));
+        queue = queue(cache, config);
+
+        long accepted = queue.enqueue(List.of(new Product("1", "first"))).block(Duration.ofSeconds(5));
+        assertTrue(inFlight.await(5, TimeUnit.SECONDS));
+        queue.destroy();
+
+        // Флашер не зупинився за таймаут, тож destroy не пише той самий пакет паралельно з ним
+        verify(cache, times(1)).saveProductBatch(anyMap());
+        release.countDown();
+        queue.awaitDurable(accepted).block(Duration.ofSeconds(5));
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (queue != null) {
+            queue.destroy();
+        }
+    }
+
+    private RedisProductCache cache() {
+        CacheConfiguration config = new CacheConfiguration();
+        config.setExecutionMode(CacheConfiguration.ExecutionMode.CALLER);
+        EnrichmentMetrics metrics = new EnrichmentMetrics(new SimpleMeterRegistry());
+        return new RedisProductCache(redis, config, metrics, new BlockingRedisExecutor(config),
+                new ProductBuckets(redis.strings(), config));
+    }
+
+    private ProductWriteBehindQueue queue(RedisProductCache cache, Duration flushInterval) {
+        return queue(cache, flushInterval, new CacheConfiguration.WriteBehind().getQueueCapacity());
+    }
+
+    private ProductWriteBehindQueue queue(RedisProductCache cache, Duration flushInterval, int capacity) {
+        return queue(cache, config(flushInterval, capacity));
+    }
+
+    private ProductWriteBehindQueue queue(RedisProductCache cache, CacheConfiguration config) {
+        return new ProductWriteBehindQueue(cache, config, new EnrichmentMetrics(new SimpleMeterRegistry()),
+                new SimpleMeterRegistry());
+    }
+
+    private static CacheConfiguration config(Duration flushInterval, int capacity) {
+        CacheConfiguration config = new CacheConfiguration();
+        config.getWriteBehind().setQueueCapacity(capacity);
+        config.setWriteMode(CacheConfiguration.WriteMode.WRITE_BEHIND);
+        config.setRetryDelayMs(1);
+        config.getWriteBehind().setFlushInterval(flushInterval);
+        return config;
+    }
+}
@@ -1,16 +1,23 @@
 package org.example.testtask.infrastructure.cache;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.testtask.domain.model.Product;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import reactor.test.StepVerifier;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -30,6 +37,12 @@ class RedisProductCacheTest {
     @Mock
     private CacheConfiguration cacheConfig;
 
+    @Spy
+    private EnrichmentMetrics metrics = new EnrichmentMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private BlockingRedisExecutor redisExecutor = new BlockingRedisExecutor(callerConfig());
+
     @InjectMocks
     private RedisProductCache redisProductCache;
 
@@ -88,6 +101,97 @@ class RedisProductCacheTest {
         logger.info("Продукт відсутній у кеші");
     }
 
+    @Test
+    void testGetProductReactive_RetriesRedisFailure() {
+        logger.info("Тест повтору GET після збою Redis");
+
+        when(cacheConfig.getMaxRetries()).thenReturn(2);
+        when(cacheConfig.getRetryDelayMs()).thenReturn(1L);
+        when(valueOperations.get("product:123"))
+                .thenThrow(new IllegalStateException("Redis недоступний"))
+                .thenReturn(sampleProduct);
+
+        StepVerifier.create(redisProductCache.getProductReactive("123"))
+                .expectNext(sampleProduct)
+                .verifyComplete();
+
+        verify(valueOperations, times(2)).get("product:123");
+        logger.info("Продукт отримано з другої спроби");
+    }
+
+    @Test
+    void testGetProductReactive_MissingAfterRetriesExhausted() {
+        logger.info("Тест вичерпання повторів GET");
+
+        when(cacheConfig.getMaxRetries()).thenReturn(2);
+        when(cacheConfig.getRetryDelayMs()).thenReturn(1L);
+        when(valueOperations.get("product:123")).thenThrow(new IllegalStateException("Redis недоступний"));
+
+        StepVerifier.create(redisProductCache.getProductReactive("123"))
+                .verifyComplete();
+
+        verify(valueOperations, times(3)).get("product:123");
+        verify(metrics, times(3)).redisError();
+        logger.info("Після вичерпання повторів продукт вважається відсутнім");
+    }
+
+    @Test
+    void testGetProducts_MultiGet() {
+        logger.info("Тест пакетного отримання продуктів одним MGET");
+
+        when(valueOperations.get("product:123")).thenReturn(sampleProduct);
+        redisProductCache.getProduct("123");
+        Product other = new Product("456", "Other Product");
+        when(valueOperations.multiGet(List.of("product:456", "product:999"))).thenReturn(Arrays.asList(other, null));
+
+        Map<String, Product> products = redisProductCache.getProducts(List.of("123", "456", "999", "456"));
+
+        assertEquals(Map.of("123", sampleProduct, "456", other), products);
+        verify(valueOperations).multiGet(List.of("product:456", "product:999"));
+        assertTrue(redisProductCache.isCachedLocally("456"), "Знайдений продукт має потрапити в локальний кеш");
+
+        logger.info("Пакет отримано: {}", products);
+    }
+
+    @Test
+    void testGetProductsReactive_RetriesRedisFailure() {
+        logger.info("Тест повтору MGET після збою Redis");
+
+        when(cacheConfig.getMaxRetries()).thenReturn(2);
+        when(cacheConfig.getRetryDelayMs()).thenReturn(1L);
+        when(valueOperations.get("product:123")).thenReturn(sampleProduct);
+        redisProductCache.getProduct("123");
+        Product other = new Product("456", "Other Product");
+        when(valueOperations.multiGet(List.of("product:456")))
+                .thenThrow(new IllegalStateException("Redis недоступний"))
+                .thenReturn(List.of(other));
+
+        StepVerifier.create(redisProductCache.getProductsReactive(List.of("123", "456")))
+                .expectNext(Map.of("123", sampleProduct, "456", other))
+                .verifyComplete();
+
+        verify(valueOperations, times(2)).multiGet(List.of("product:456"));
+        logger.info("Пакет отримано з другої спроби");
+    }
+
+    @Test
+    void testGetProductsReactive_LocalHitsAfterRetriesExhausted() {
+        logger.info("Тест вичерпання повторів MGET");
+
+        when(cacheConfig.getMaxRetries()).thenReturn(2);
+        when(cacheConfig.getRetryDelayMs()).thenReturn(1L);
+        when(valueOperations.get("product:123")).thenReturn(sampleProduct);
+        redisProductCache.getProduct("123");
+        when(valueOperations.multiGet(List.of("product:456"))).thenThrow(new IllegalStateException("Redis недоступний"));
+
+        StepVerifier.create(redisProductCache.getProductsReactive(List.of("123", "456")))
+                .expectNext(Map.of("123", sampleProduct))
+                .verifyComplete();
+
+        verify(valueOperations, times(3)).multiGet(List.of("product:456"));
+        logger.info("Після вичерпання повторів повертаються лише локальні попадання");
+    }
+
     @Test
     void testInvalidateCache() {
         logger.info("Тест видалення продукту з кешу");
@@ -98,4 +202,10 @@ class RedisProductCacheTest {
 
         logger.info("Продукт успішно видалено з кешу");
     }
+
+    private static CacheConfiguration callerConfig() {
+        CacheConfiguration config = new CacheConfiguration();
+        config.setExecutionMode(CacheConfiguration.ExecutionMode.CALLER);
+        return config;
+    }
 }
@@ -0,0 +1,102 @@
+package org.example.testtask.infrastructure.catalog;
+
+import org.example.testtask.domain.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCatalogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldFindProductsByIdIncludingNonAsciiValues() {
+        ProductCatalog catalog = ProductCatalog.build(3, List.of(
+                new Product("1", "Treasury Bills Domestic"),
+                new Product("2", "Corporate Bonds, Domestic"),
+                new Product("ід-3", "Облігації")));
+
+        assertEquals(3, catalog.getVersion());
+        assertEquals(3, catalog.size());
+        assertEquals("Treasury Bills Domestic", catalog.findProductName("1"));
+        assertEquals("Corporate Bonds, Domestic", catalog.findProductName("2"));
+        assertEquals("Облігації", catalog.findProductName("ід-3"));
+        assertNull(catalog.findProductName("4"));
+        assertNull(catalog.findProductName(null));
+        assertNull(ProductCatalog.empty().findProductName("1"));
+    }
+
+    @Test
+    void shouldStoreEachDistinctNameOnce() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 1_000; i++) {
+            products.add(new Product(String.valueOf(i), i % 2 == 0 ? "FX Forward" : "Equity Futures"));
+        }
+
+        ProductCatalog catalog = ProductCatalog.build(1, products);
+        ProductCatalog reread = ProductCatalog.read(catalog.asByteBuffer());
+
+        assertEquals(2, reread.distinctNames());
+        assertEquals("FX Forward", reread.findProductName("2"));
+        assertSame(reread.findProductName("2"), reread.findProductName("998"));
+        assertTrue(catalog.asByteBuffer().remaining() < 1_000 * 16 + 16 * 2048 + 64,
+                "Entries should hold name codes rather than repeated names");
+    }
+
+    @Test
+    void shouldMapSavedSnapshotBackFromDisk() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 1; i <= 10_000; i++) {
+            products.add(new Product(String.valueOf(i), "Product " + i));
+        }
+        CatalogSnapshotStore store = new CatalogSnapshotStore(config(tempDir.resolve("catalog.bin")));
+
+        store.save(ProductCatalog.build(7, products));
+        ProductCatalog loaded = store.load().orElseThrow();
+
+        assertEquals(7, loaded.getVersion());
+        assertEquals(10_000, loaded.size());
+        assertEquals("Product 4242", loaded.findProductName("4242"));
+        List<Product> iterated = new ArrayList<>();
+        loaded.forEach(iterated::add);
+        assertEquals(products, iterated);
+    }
+
+    @Test
+    void shouldIgnoreCorruptSnapshot() throws IOException {
+        Path file = tempDir.resolve("catalog.bin");
+        CatalogSnapshotStore store = new CatalogSnapshotStore(config(file));
+        store.save(ProductCatalog.build(1, List.of(new Product("1", "Treasury Bills Domestic"))));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertEquals(Optional.empty(), store.load());
+    }
+
+    @Test
+    void shouldReturnEmptyWhenSnapshotIsMissing() {
+        CatalogSnapshotStore store = new CatalogSnapshotStore(config(tempDir.resolve("missing.bin")));
+
+        assertTrue(store.load().isEmpty());
+    }
+
+    private static CatalogConfiguration config(Path file) {
+        CatalogConfiguration config = new CatalogConfiguration();
+        config.setSnapshotFile(file);
+        return config;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.testtask.infrastructure.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void shouldGrowBeyondInitialCapacityWithinTargetFalsePositiveRate() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01, 1024 * 1024);
+        SplittableRandom random = new SplittableRandom(42);
+        long[][] keys = new long[50_000][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new long[]{random.nextLong(), random.nextLong() | 1};
+        }
+
+        int falsePositives = 0;
+        for (long[] key : keys) {
+            if (filter.putIfAbsent(key[0], key[1])) {
+                falsePositives++;
+            }
+        }
+        for (long[] key : keys) {
+            assertTrue(filter.putIfAbsent(key[0], key[1]), "Inserted keys must always be reported as seen");
+        }
+
+        assertTrue(filter.getLayers() > 1, "Filter should add layers past the initial capacity");
+        assertFalse(filter.isSaturated());
+        assertTrue(falsePositives < keys.length * 0.01, "False positives: " + falsePositives);
+    }
+
+    @Test
+    void shouldStopGrowingAtMemoryLimit() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01, 16 * 1024);
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            filter.putIfAbsent(random.nextLong(), random.nextLong() | 1);
+        }
+
+        assertTrue(filter.isSaturated());
+        assertTrue(filter.getAllocatedBytes() <= 16 * 1024, "Allocated: " + filter.getAllocatedBytes());
+    }
+
+    @Test
+    void shouldRejectInvalidFalsePositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(1_000, 0, 1024));
+    }
+}
@@ -1,25 +1,44 @@
 package org.example.testtask.infrastructure.parser;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.model.RejectReason;
+import org.example.testtask.domain.model.RejectReport;
+import org.example.testtask.domain.model.RejectedRow;
 import org.example.testtask.domain.model.Trade;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CsvParserTest {
 
     private CsvParser csvParser;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
-        csvParser = new CsvParser();
+        meterRegistry = new SimpleMeterRegistry();
+        csvParser = new CsvParser(new EnrichmentMetrics(meterRegistry));
     }
 
     @Test
@@ -44,6 +63,74 @@ class CsvParserTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testParseTradesFollowsHeaderColumnOrderAndSkipsUnknownColumns() {
+        String csvContent = "trade_id,Price,currency,desk,productId,date\n" +
+                "T-1,100.25,USD,rates,1,20230101\n";
+
+        StepVerifier.create(csvParser.parseTrades(new StringReader(csvContent)))
+                .expectNextMatches(trade -> trade.getDate().equals(LocalDate.of(2023, 1, 1)) &&
+                        "1".equals(trade.getProductId()) &&
+                        "USD".equals(trade.getCurrency()) &&
+                        new BigDecimal("100.25").equals(trade.getPrice()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testParseTradesFailsWhenHeaderLacksRequiredColumn() {
+        String csvContent = "date,productId,amount\n" +
+                "20230101,1,100.25\n";
+
+        StepVerifier.create(csvParser.parseTrades(new StringReader(csvContent)))
+                .expectErrorMatches(error -> error instanceof IllegalArgumentException &&
+                        error.getMessage().contains("[currency, price]"))
+                .verify();
+    }
+
+    @Test
+    void testParseTradeRowsCompilesPlanFromFirstHeaderLine() {
+        Flux<String> chunks = Flux.just("productId,date,price,currency\n1,20230101,10.5,EUR",
+                "productId,date,price,currency\n2,20230102,11,USD");
+
+        StepVerifier.create(csvParser.parseTradeRows(chunks, new RejectLog("trade")))
+                .expectNextMatches(trade -> "1".equals(trade.getProductId()) && "EUR".equals(trade.getCurrency()))
+                .expectNextMatches(trade -> "2".equals(trade.getProductId()) &&
+                        trade.getDate().equals(LocalDate.of(2023, 1, 2)))
+                .verifyComplete();
+    }
+
+    @Test
+    void testParseTradesSkipsRowsOutsideFilterBeforeValidation() {
+        String csvContent = "date,productId,currency,price\n" +
+                "20221231,1,USD,10\n" +
+                "20230101,1,usd,11\n" +
+                "20230102,2,USD,12\n" +
+                "20230103,1,EUR,13\n" +
+                "20230104,1,USD,not-a-price\n" +
+                "20240101,1,USD,not-a-price\n" +
+                "2023-01-05,1,USD,15\n";
+        RejectLog rejects = new RejectLog("trade");
+        TradeFilter filter = TradeFilter.of("20230101", "20231231", List.of("USD"), List.of("1"));
+
+        StepVerifier.create(csvParser.parseTrades(new StringReader(csvContent), rejects, filter))
+                .expectNextMatches(trade -> trade.getDate().equals(LocalDate.of(2023, 1, 1)))
+                .verifyComplete();
+
+        // Рядки поза діапазоном пропускаються без розбору; рядки, які фільтр не може прочитати, однаково відхиляються
+        assertEquals(7, filter.toReport().getScanned());
+        assertEquals(4, filter.toReport().getSkipped());
+        assertEquals(1, filter.toReport().getEmitted());
+        assertEquals(1, rejects.count(RejectReason.INVALID_PRICE));
+        assertEquals(1, rejects.count(RejectReason.INVALID_DATE));
+        assertEquals(4.0, meterRegistry.get("enrichment.rows.filtered").tag("type", "trade").counter().count());
+    }
+
+    @Test
+    void testTradeFilterRejectsInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> TradeFilter.of("20230132", null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> TradeFilter.of("20230102", "20230101", null, null));
+    }
+
     @Test
     void testParseTradesInvalidDateFormat() {
         String csvContent = "date,productId,currency,price\n" +
@@ -90,6 +177,25 @@ class CsvParserTest {
     }
 
 
+    @Test
+    void testParseProductsWithQuotedNames() {
+        String csvContent = "productId,productName\n" +
+                "1,\"Bonds, Corporate\"\n" +
+                "2,\"FX \"\"Spot\"\"\"\n" +
+                "3,\"Unterminated\n";
+        RejectLog rejects = new RejectLog("product");
+
+        // Кома всередині лапок не ділить назву, а незакрита лапка відхиляє рядок
+        StepVerifier.create(csvParser.parseProducts(new StringReader(csvContent), rejects))
+                .expectNextMatches(product -> "Bonds, Corporate".equals(product.getProductName()))
+                .expectNextMatches(product -> "FX \"Spot\"".equals(product.getProductName()))
+                .verifyComplete();
+
+        assertEquals(List.of(new RejectedRow(4, RejectReason.MALFORMED_ROW, "3,\"Unterminated")),
+                rejects.toReport().getSamples());
+    }
+
+
     @Test
     void testParseTradesErrorHandling() {
         String csvContent = "date,productId,currency,price\n" +
@@ -106,6 +212,63 @@ class CsvParserTest {
     }
 
 
+    @Test
+    void testParseTradesRecordsMetrics() {
+        String csvContent = "date,productId,currency,price\n" +
+                "20230101,1,USD,100.25\n" +
+                "invalidDate,1,EUR,1700.70\n";
+
+        StepVerifier.create(csvParser.parseTrades(new StringReader(csvContent)))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(1.0, meterRegistry.get("enrichment.rows.parsed").tag("type", "trade").counter().count());
+        assertEquals(1.0, meterRegistry.get("enrichment.rows.rejected").tag("type", "trade").counter().count());
+    }
+
+    @Test
+    void testParseTradesCountsEveryRowButTimesOnlyASample() {
+        StringBuilder csvContent = new StringBuilder("date,productId,currency,price\n");
+        for (int i = 0; i < 6_400; i++) {
+            csvContent.append("20230101,").append(i).append(",USD,100.25\n");
+        }
+
+        StepVerifier.create(csvParser.parseTrades(new StringReader(csvContent.toString())))
+                .expectNextCount(6_400)
+                .verifyComplete();
+
+        assertEquals(6_400, meterRegistry.get("enrichment.rows.parsed").tag("type", "trade").counter().count());
+        long timed = meterRegistry.get("enrichment.parse.latency").timer().count();
+        // У середньому міряється один рядок із 64, тобто близько сотні
+        assertTrue(timed > 0 && timed < 400, "timed " + timed);
+    }
+
+    @Test
+    void testParseTradesEmitsParseBatchEvent() throws IOException {
+        String csvContent = "date,productId,currency,price\n" +
+                "20230101,1,USD,100.25\n" +
+                "invalidDate,1,EUR,1700.70\n";
+        Path dump = Files.createTempFile("parse-batch", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.testtask.ParseBatch");
+            recording.start();
+            csvParser.parseTrades(new StringReader(csvContent)).blockLast();
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("org.example.testtask.ParseBatch"))
+                .toList();
+        Files.deleteIfExists(dump);
+
+        assertEquals(1, events.size());
+        assertEquals("trade", events.get(0).getString("rowType"));
+        assertEquals(2, events.get(0).getInt("rows"));
+        assertEquals(1, events.get(0).getInt("rejected"));
+    }
+
     @Test
     void testParseProductsErrorHandling() {
         String csvContent = "productId,productName\n" +
@@ -120,4 +283,62 @@ class CsvParserTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testParsedStringsShareCanonicalInstances() {
+        String csvContent = "date,productId,currency,price\n" +
+                "20230101,1,USD,100.25\n" +
+                "20230102,4, USD ,150.75\n";
+
+        List<Trade> trades = csvParser.parseTrades(new StringReader(csvContent)).collectList().block();
+        Product first = csvParser.createProductFromLine("1,FX Forward");
+        Product second = csvParser.createProductFromLine("2, FX Forward ");
+
+        assertSame(trades.get(0).getCurrency(), trades.get(1).getCurrency());
+        assertSame(first.getProductName(), second.getProductName());
+    }
+
+    @Test
+    void testRejectedRowsCarryLineNumberAndReason() {
+        String csvContent = "date,productId,currency,price\n" +
+                "20230101,1,USD,100.25\n" +
+                "20230230,1,USD,100.25\n" +
+                "20230102,,USD,1\n" +
+                "20230102,2,USD,1.2.3\n" +
+                "20230102,2\n" +
+                "20230103,3,EUR,-1.5E+3\n";
+        RejectLog rejects = new RejectLog("trade");
+
+        StepVerifier.create(csvParser.parseTrades(new StringReader(csvContent), rejects))
+                .expectNextMatches(trade -> "1".equals(trade.getProductId()))
+                .expectNextMatches(trade -> new BigDecimal("-1.5E+3").equals(trade.getPrice()))
+                .verifyComplete();
+
+        RejectReport report = rejects.toReport();
+        assertEquals(4, report.getRows());
+        assertEquals(List.of(
+                new RejectedRow(3, RejectReason.INVALID_DATE, "20230230,1,USD,100.25"),
+                new RejectedRow(4, RejectReason.EMPTY_PRODUCT_ID, "20230102,,USD,1"),
+                new RejectedRow(5, RejectReason.INVALID_PRICE, "20230102,2,USD,1.2.3"),
+                new RejectedRow(6, RejectReason.MISSING_FIELDS, "20230102,2")), report.getSamples());
+        assertEquals(1.0, meterRegistry.get("enrichment.rejects")
+                .tag("type", "trade").tag("reason", "invalid_date").counter().count());
+        assertEquals(4.0, meterRegistry.get("enrichment.rows.rejected").tag("type", "trade").counter().count());
+    }
+
+    @Test
+    void testRejectedProductLinesCarryLineNumberAndReason() {
+        String csvContent = "productId,productName\n" +
+                "1,Treasury Bills Domestic\n" +
+                ",Corporate Bonds Domestic\n" +
+                "3, \n";
+        RejectLog rejects = new RejectLog("product");
+
+        StepVerifier.create(csvParser.parseProducts(new StringReader(csvContent), rejects))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(List.of(
+                new RejectedRow(3, RejectReason.EMPTY_PRODUCT_ID, ",Corporate Bonds Domestic"),
+                new RejectedRow(4, RejectReason.EMPTY_PRODUCT_NAME, "3, ")), rejects.toReport().getSamples());
+    }
 }
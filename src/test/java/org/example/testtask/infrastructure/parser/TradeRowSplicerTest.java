@@ -0,0 +1,82 @@
+package org.example.testtask.infrastructure.parser;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.RejectReason;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TradeRowSplicerTest {
+
+    private static final Map<String, String> NAMES = Map.of(
+            "1", "Treasury Bills Domestic",
+            "2", "Corporate Bonds, Domestic");
+
+    private TradeRowSplicer splicer;
+    private RejectLog rejects;
+
+    @BeforeEach
+    void setUp() {
+        splicer = new TradeRowSplicer(new EnrichmentMetrics(new SimpleMeterRegistry()));
+        rejects = new RejectLog("trade");
+    }
+
+    @Test
+    void shouldKeepOriginalBytesAndLineEndings() throws IOException {
+        String result = splice("date,productId,currency,price\r\n" +
+                "20230101,1,USD,1.50e2\r\n" +
+                "20230102,\"2\",EUR,  200.4500\n" +
+                "20230103,3,GBP,7");
+
+        assertEquals("date,productId,currency,price,productName\r\n" +
+                "20230101,1,USD,1.50e2,Treasury Bills Domestic\r\n" +
+                "20230102,\"2\",EUR,  200.4500,\"Corporate Bonds, Domestic\"\n" +
+                "20230103,3,GBP,7,Missing 3", result);
+    }
+
+    @Test
+    void shouldUseProductIdColumnFromHeader() throws IOException {
+        String result = splice("price,note,currency,product_id,date\n" +
+                "10.0,\"a, b\",USD,1,20230101\n");
+
+        assertEquals("price,note,currency,product_id,date,productName\n" +
+                "10.0,\"a, b\",USD,1,20230101,Treasury Bills Domestic\n", result);
+    }
+
+    @Test
+    void shouldRejectRowsWithoutProductId() throws IOException {
+        String result = splice("date,productId,currency,price\n" +
+                "20230101,1,USD\n" +
+                "20230102,,USD,1\n" +
+                "\n" +
+                "20230103,\"1,USD,1\n" +
+                "20230104,1,USD,1\n");
+
+        assertEquals("date,productId,currency,price,productName\n" +
+                "20230104,1,USD,1,Treasury Bills Domestic\n", result);
+        assertEquals(1, rejects.count(RejectReason.MISSING_FIELDS));
+        assertEquals(1, rejects.count(RejectReason.EMPTY_PRODUCT_ID));
+        assertEquals(1, rejects.count(RejectReason.MALFORMED_ROW));
+    }
+
+    @Test
+    void shouldFailOnIncompleteHeader() {
+        assertThrows(IllegalArgumentException.class, () -> splice("date,productId,price\n20230101,1,1\n"));
+    }
+
+    private String splice(String csv) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        splicer.splice(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), out,
+                id -> NAMES.getOrDefault(id, "Missing " + id), rejects);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,40 @@
+package org.example.testtask.infrastructure.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTest {
+
+    private static final List<String> KEYS = IntStream.range(0, 30_000).mapToObj(String::valueOf).toList();
+
+    @Test
+    void shouldSpreadNumericIdsEvenlyAcrossNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+
+        Map<String, Integer> counts = new HashMap<>();
+        KEYS.forEach(key -> counts.merge(ring.nodeFor(key), 1, Integer::sum));
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count ->
+                assertTrue(count > 8_000 && count < 12_000, "Unbalanced shard: " + counts));
+    }
+
+    @Test
+    void shouldMoveOnlyTheNewNodesShareWhenNodeIsAdded() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("c", "b", "a", "d"), 128);
+
+        long moved = KEYS.stream().filter(key -> !before.nodeFor(key).equals(after.nodeFor(key))).count();
+
+        assertTrue(KEYS.stream().filter(key -> !before.nodeFor(key).equals(after.nodeFor(key)))
+                .allMatch(key -> after.nodeFor(key).equals("d")), "Keys may only move to the new node");
+        assertTrue(moved > KEYS.size() / 6 && moved < KEYS.size() / 3, "Moved " + moved + " keys");
+    }
+}
@@ -0,0 +1,166 @@
+package org.example.testtask.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.support.InMemoryRedisTemplate;
+import org.example.testtask.support.TradeFileGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Наскрізний замір пропускної здатності {@code POST /api/v1/enrich} із заміною Redis у пам'яті процесу.
+ * Вимкнений, доки не задано {@code load.rows}, наприклад
+ * {@code mvn test -Dtest=EnrichmentLoadTest -Dload.rows=1000000 -Dload.requests=16 -Dload.concurrency=4 -Dload.zipf=1.1}
+ */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "enrichment.catalog.snapshot-enabled=false")
+@EnabledIfSystemProperty(named = "load.rows", matches = "\\d+")
+class EnrichmentLoadTest {
+
+    @TestConfiguration
+    static class InMemoryRedisConfig {
+        @Bean
+        @Primary
+        RedisTemplate<String, Object> inMemoryRedisTemplate() {
+            return new InMemoryRedisTemplate();
+        }
+
+        @Bean
+        @Primary
+        CacheManager noOpCacheManager() {
+            return new NoOpCacheManager();
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CsvParser csvParser;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Test
+    void enrichThroughput() throws IOException {
+        long totalRows = Long.getLong("load.rows");
+        int requests = Integer.getInteger("load.requests", 8);
+        int concurrency = Integer.getInteger("load.concurrency", 4);
+        double zipf = Double.parseDouble(System.getProperty("load.zipf", "0"));
+        double missingRatio = Double.parseDouble(System.getProperty("load.missingRatio", "0.01"));
+        double malformedRatio = Double.parseDouble(System.getProperty("load.malformedRatio", "0"));
+
+        try (InputStreamReader reader = new InputStreamReader(
+                new ClassPathResource("largeSizeProduct.csv").getInputStream(), StandardCharsets.UTF_8)) {
+            tradeService.loadProducts(csvParser.parseProducts(reader)).block();
+        }
+
+        long rowsPerRequest = totalRows / requests;
+        List<String> bodies = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            TradeFileGenerator.Builder generator = TradeFileGenerator.builder()
+                    .rows(rowsPerRequest)
+                    .missingProductRatio(missingRatio)
+                    .malformedRowRatio(malformedRatio)
+                    .seed(i);
+            bodies.add((zipf > 0 ? generator.zipf(zipf) : generator.uniform()).build().generate());
+        }
+
+        WebClient client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .build();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long start = System.nanoTime();
+        List<long[]> results = Flux.fromIterable(bodies)
+                .flatMap(body -> enrich(client, body), concurrency)
+                .collectList()
+                .block();
+        long elapsedNanos = System.nanoTime() - start;
+
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long enrichedRows = results.stream().mapToLong(result -> result[1]).sum();
+        List<Long> latencies = new ArrayList<>(results.stream().map(result -> result[0]).toList());
+        Collections.sort(latencies);
+
+        log.info("Load: {} rows in {} requests (concurrency {}), {} rows/s, p50 {} ms, p99 {} ms, peak heap {} MB",
+                enrichedRows, requests, concurrency,
+                Math.round(enrichedRows / (elapsedNanos / 1e9)),
+                percentile(latencies, 0.50) / 1_000_000, percentile(latencies, 0.99) / 1_000_000,
+                peakHeap / (1024 * 1024));
+
+        if (malformedRatio == 0) {
+            assertEquals(rowsPerRequest * requests, enrichedRows);
+        }
+    }
+
+    /**
+     * Повертає [латентність у нс, кількість рядків у відповіді].
+     */
+    private static Mono<long[]> enrich(WebClient client, String body) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return client.post()
+                    .uri("/api/v1/enrich")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .bodyValue(body)
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class)
+                    .map(EnrichmentLoadTest::countObjects)
+                    .reduce(0L, Long::sum)
+                    .map(rows -> new long[]{System.nanoTime() - start, rows});
+        });
+    }
+
+    private static long countObjects(DataBuffer buffer) {
+        long objects = 0;
+        try {
+            for (int i = buffer.readPosition(); i < buffer.writePosition(); i++) {
+                if (buffer.getByte(i) == '{') {
+                    objects++;
+                }
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+        return objects;
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
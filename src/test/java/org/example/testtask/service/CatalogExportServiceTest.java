@@ -0,0 +1,95 @@
+package org.example.testtask.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.service.CatalogExportService;
+import org.example.testtask.domain.service.ProductCatalogService;
+import org.example.testtask.infrastructure.cache.BlockingRedisExecutor;
+import org.example.testtask.infrastructure.cache.CacheConfiguration;
+import org.example.testtask.infrastructure.cache.ProductBuckets;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.catalog.CatalogConfiguration;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.infrastructure.partition.PartitionConfiguration;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+import org.example.testtask.support.InMemoryRedisTemplate;
+import org.example.testtask.support.TestCatalogs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogExportServiceTest {
+
+    private final InMemoryRedisTemplate redis = new InMemoryRedisTemplate();
+    private RedisProductCache redisProductCache;
+    private ProductCatalogService catalogService;
+    private CatalogExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        CacheConfiguration cacheConfig = new CacheConfiguration();
+        cacheConfig.setExecutionMode(CacheConfiguration.ExecutionMode.CALLER);
+        redisProductCache = new RedisProductCache(redis, cacheConfig, new EnrichmentMetrics(new SimpleMeterRegistry()),
+                new BlockingRedisExecutor(cacheConfig), new ProductBuckets(redis.strings(), cacheConfig));
+        catalogService = TestCatalogs.inMemory(redisProductCache);
+        exportService = new CatalogExportService(catalogService, redisProductCache,
+                new PartitionRouter(new PartitionConfiguration()), new CatalogConfiguration());
+    }
+
+    @Test
+    void shouldExportLocalCatalogAsCsvWithoutTouchingRedis() {
+        catalogService.replace(List.of(new Product("1", "Treasury Bills Domestic"), new Product("2", "Corporate Bonds")));
+
+        String csv = exportService.export(CatalogExportService.Source.AUTO, CatalogExportService.Format.CSV)
+                .collect(Collectors.joining())
+                .block();
+
+        assertEquals("productId,productName\n1,Treasury Bills Domestic\n2,Corporate Bonds\n", csv);
+        assertEquals(0, redis.scanPages());
+    }
+
+    @Test
+    void shouldQuoteNamesSoTheExportUploadsBack() {
+        catalogService.replace(List.of(new Product("1", "Bonds, Corporate"), new Product("2", "FX \"Spot\"")));
+
+        String csv = exportService.export(CatalogExportService.Source.LOCAL, CatalogExportService.Format.CSV)
+                .collect(Collectors.joining())
+                .block();
+
+        assertEquals("productId,productName\n1,\"Bonds, Corporate\"\n2,\"FX \"\"Spot\"\"\"\n", csv);
+        // Експорт має читатися назад тим самим парсером, що й завантаження
+        List<Product> uploaded = new CsvParser(new EnrichmentMetrics(new SimpleMeterRegistry()))
+                .parseProducts(new StringReader(csv))
+                .collectList()
+                .block();
+        assertEquals(List.of(new Product("1", "Bonds, Corporate"), new Product("2", "FX \"Spot\"")), uploaded);
+    }
+
+    @Test
+    void shouldScanRedisPageByPageAsTheClientRequestsChunks() {
+        Map<String, Product> products = new LinkedHashMap<>();
+        for (int i = 0; i < 2500; i++) {
+            products.put(String.valueOf(i), new Product(String.valueOf(i), "Product " + i));
+        }
+        redisProductCache.saveProductBatch(products);
+
+        StepVerifier.create(exportService.export(CatalogExportService.Source.AUTO, CatalogExportService.Format.NDJSON), 1)
+                .assertNext(chunk -> assertEquals(1000, chunk.lines().count()))
+                .then(() -> assertTrue(redis.scanPages() <= 2, "Pages scanned ahead of demand: " + redis.scanPages()))
+                .thenRequest(Long.MAX_VALUE)
+                .assertNext(chunk -> assertTrue(chunk.startsWith("{\"productId\":")))
+                .assertNext(chunk -> assertEquals(500, chunk.lines().count()))
+                .verifyComplete();
+        assertEquals(3, redis.scanPages());
+    }
+}
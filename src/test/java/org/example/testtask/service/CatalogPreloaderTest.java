@@ -0,0 +1,117 @@
+package org.example.testtask.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.service.CatalogPreloader;
+import org.example.testtask.domain.service.ProductCatalogService;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.catalog.CatalogConfiguration;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.support.TestCatalogs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogPreloaderTest {
+
+    @Mock
+    private RedisProductCache redisProductCache;
+
+    private ProductCatalogService catalogService;
+    private CatalogConfiguration config;
+
+    @BeforeEach
+    void setUp() {
+        catalogService = TestCatalogs.inMemory(redisProductCache);
+        config = new CatalogConfiguration();
+        config.setVerifyOnStartup(false);
+        config.getPreload().setChunkBytes(4 * 1024);
+        config.getPreload().setParallelism(4);
+    }
+
+    @Test
+    void shouldPreloadCatalogFromFileInParallelChunks() {
+        CatalogPreloader preloader = newPreloader();
+
+        preloader.preload();
+
+        assertEquals(CatalogPreloader.State.READY, preloader.getState());
+        assertEquals("file", preloader.getSource());
+        assertEquals(79_991, catalogService.current().size());
+        assertEquals("Commodity Swaps 1", catalogService.findProductName("1"));
+        assertNotNull(catalogService.findProductName("79991"));
+    }
+
+    @Test
+    void shouldSkipFileWhenSnapshotAlreadyWarmedCatalog() {
+        catalogService.replace(List.of(new Product("1", "From snapshot")));
+        config.getPreload().setFile("classpath:does-not-exist.csv");
+
+        CatalogPreloader preloader = newPreloader();
+        preloader.preload();
+
+        assertEquals(CatalogPreloader.State.READY, preloader.getState());
+        assertEquals("snapshot", preloader.getSource());
+        assertEquals("From snapshot", catalogService.findProductName("1"));
+    }
+
+    @Test
+    void shouldStayOutOfServiceWhenPreloadFailsWithEmptyCatalog() {
+        config.getPreload().setFile("classpath:does-not-exist.csv");
+
+        CatalogPreloader preloader = newPreloader();
+        preloader.preload();
+
+        assertEquals(CatalogPreloader.State.FAILED, preloader.getState());
+        assertNotNull(preloader.getFailure());
+    }
+
+    @Test
+    void shouldLoadFromRedisWhenConfiguredAsSource() {
+        config.getPreload().setSource(CatalogConfiguration.PreloadSource.REDIS);
+        when(redisProductCache.getCatalogVersion()).thenReturn(3L);
+        when(redisProductCache.loadAllProducts()).thenReturn(Map.of("7", new Product("7", "From Redis")));
+
+        CatalogPreloader preloader = newPreloader();
+        preloader.preload();
+
+        assertEquals(CatalogPreloader.State.READY, preloader.getState());
+        assertEquals("redis", preloader.getSource());
+        assertEquals("From Redis", catalogService.findProductName("7"));
+        verify(redisProductCache, never()).incrementCatalogVersion();
+    }
+
+    @Test
+    void shouldStampFileCatalogWithRedisVersionInsteadOfReplacingIt() {
+        config.setVerifyOnStartup(true);
+        when(redisProductCache.getCatalogVersion()).thenReturn(3L);
+
+        CatalogPreloader preloader = newPreloader();
+        preloader.preload();
+
+        // Каталог з файлу лишається, а версія береться з Redis, тож наступна звірка не вважає його застарілим
+        assertEquals("file", preloader.getSource());
+        assertEquals(3, catalogService.current().getVersion());
+        assertEquals("Commodity Swaps 1", catalogService.findProductName("1"));
+        verify(redisProductCache, never()).loadAllProducts();
+    }
+
+    private CatalogPreloader newPreloader() {
+        return new CatalogPreloader(catalogService, new CsvParser(new EnrichmentMetrics(new SimpleMeterRegistry())),
+                config, new DefaultResourceLoader(), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,237 @@
+package org.example.testtask.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.EnrichmentJob;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.service.EnrichmentJobService;
+import org.example.testtask.domain.service.JobRejectedException;
+import org.example.testtask.domain.service.PartitionedEnrichmentService;
+import org.example.testtask.domain.service.TradeDeduplicator;
+import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.domain.service.UnsupportedJobModeException;
+import org.example.testtask.infrastructure.dedup.DedupConfiguration;
+import org.example.testtask.infrastructure.job.JobConfiguration;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.infrastructure.partition.PartitionConfiguration;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.infrastructure.parser.RejectLog;
+import org.example.testtask.infrastructure.parser.TradeCsvFormatter;
+import org.example.testtask.infrastructure.parser.TradeRowSplicer;
+import org.example.testtask.support.TestCatalogs;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class EnrichmentJobServiceTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final EnrichmentMetrics metrics = new EnrichmentMetrics(new SimpleMeterRegistry());
+    private TradeService tradeService;
+    private JobConfiguration jobConfig;
+    private EnrichmentJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        tradeService = new TradeService(metrics, TestCatalogs.inMemory(null));
+        tradeService.loadProducts(Flux.just(new Product("1", "Treasury Bills Domestic"))).block();
+
+        jobConfig = new JobConfiguration();
+        jobConfig.setWorkers(1);
+        jobConfig.setQueueCapacity(0);
+        jobConfig.setSpoolDir(spoolDir);
+        jobService = jobService(new PartitionConfiguration());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void shouldEnrichSubmittedFileIntoSpooledResult() throws Exception {
+        EnrichmentJob job = jobService.submit(body("date,productId,currency,price\n" +
+                        "20230101,1,USD,100.25\n" +
+                        "20230102,2,EUR,200.45\n"))
+                .block();
+
+        awaitFinished(job);
+
+        assertEquals(EnrichmentJob.Status.COMPLETED, job.getStatus());
+        assertEquals(2, job.toStatus().getRowsProcessed());
+        assertFalse(Files.exists(job.getInputFile()));
+
+        String result = DataBufferUtils.join(jobService.readResult(job))
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block();
+        assertEquals(TradeCsvFormatter.HEADER + "\n" +
+                "20230101,1,Treasury Bills Domestic,USD,100.25\n" +
+                "20230102,2,Missing Product Name,EUR,200.45\n", result);
+        assertEquals(2, job.getSummary().getTrades());
+        assertEquals(1, job.getSummary().getMissingProducts());
+        assertEquals(new BigDecimal("300.70"), job.getSummary().getTotalPrice());
+    }
+
+    @Test
+    void shouldWriteRejectedRowsToRejectFile() throws Exception {
+        EnrichmentJob job = jobService.submit(body("date,productId,currency,price\n" +
+                        "20230101,1,USD,100.25\n" +
+                        "20231301,1,USD,100.25\n" +
+                        "20230102,1,USD,abc\n"))
+                .block();
+
+        awaitFinished(job);
+
+        assertEquals(EnrichmentJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.toStatus().getRowsProcessed());
+        assertEquals(2, job.toStatus().getRowsRejected());
+        assertEquals(RejectLog.HEADER + "\n" +
+                "3,INVALID_DATE,\"20231301,1,USD,100.25\"\n" +
+                "4,INVALID_PRICE,\"20230102,1,USD,abc\"\n", Files.readString(job.getRejectFile()));
+    }
+
+    @Test
+    void shouldRejectJobsWhenQueueIsFull() throws Exception {
+        Disposable pendingUpload = jobService.submit(Flux.never()).subscribe();
+        awaitSpoolFiles(1);
+
+        StepVerifier.create(jobService.submit(body("date,productId,currency,price\n")))
+                .expectError(JobRejectedException.class)
+                .verify(Duration.ofSeconds(5));
+
+        pendingUpload.dispose();
+        awaitSpoolFiles(0);
+    }
+
+    @Test
+    void shouldNotReserveSlotUntilSubscribed() throws Exception {
+        jobService.submit(Flux.never());
+
+        EnrichmentJob job = jobService.submit(body("date,productId,currency,price\n")).block();
+        awaitFinished(job);
+
+        assertEquals(EnrichmentJob.Status.COMPLETED, job.getStatus());
+    }
+
+    @Test
+    void shouldReleaseSlotWhenUploadIsAborted() throws Exception {
+        jobService.submit(Flux.error(new IllegalStateException("connection reset")))
+                .onErrorComplete()
+                .block();
+        awaitSpoolFiles(0);
+
+        EnrichmentJob job = jobService.submit(body("date,productId,currency,price\n")).block();
+        awaitFinished(job);
+
+        assertEquals(EnrichmentJob.Status.COMPLETED, job.getStatus());
+    }
+
+    @Test
+    void shouldReleaseSlotWhenExecutorRejectsJob() throws Exception {
+        jobService.shutdown();
+
+        StepVerifier.create(jobService.submit(body("date,productId,currency,price\n")))
+                .expectError(JobRejectedException.class)
+                .verify(Duration.ofSeconds(5));
+
+        awaitSpoolFiles(0);
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            assertEquals(0, files.filter(file -> file.toString().endsWith(".in.csv")).count());
+        }
+    }
+
+    @Test
+    void shouldSpliceProductNameIntoOriginalRows() throws Exception {
+        EnrichmentJob job = jobService.submit(body("date,productId,currency,price\r\n" +
+                        "20230101,1,USD,1.50e2\r\n" +
+                        "20230102,2,EUR,200.4500\r\n"), EnrichmentJob.Mode.SPLICE)
+                .block();
+
+        awaitFinished(job);
+
+        assertEquals(EnrichmentJob.Status.COMPLETED, job.getStatus());
+        assertEquals(EnrichmentJob.Mode.SPLICE, job.toStatus().getMode());
+        String result = DataBufferUtils.join(jobService.readResult(job))
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block();
+        assertEquals("date,productId,currency,price,productName\r\n" +
+                "20230101,1,USD,1.50e2,Treasury Bills Domestic\r\n" +
+                "20230102,2,EUR,200.4500,Missing Product Name\r\n", result);
+        assertEquals(2, job.getSummary().getTrades());
+        assertEquals(1, job.getSummary().getMissingProducts());
+    }
+
+    @Test
+    void shouldRejectSpliceJobWhenPartitioned() {
+        PartitionConfiguration partitionConfig = new PartitionConfiguration();
+        partitionConfig.setEnabled(true);
+        partitionConfig.setNodes(Map.of("local", "http://localhost:8080"));
+        EnrichmentJobService partitioned = jobService(partitionConfig);
+        try {
+            StepVerifier.create(partitioned.submit(body("date,productId,currency,price\n"), EnrichmentJob.Mode.SPLICE))
+                    .expectError(UnsupportedJobModeException.class)
+                    .verify(Duration.ofSeconds(5));
+        } finally {
+            partitioned.shutdown();
+        }
+    }
+
+    private EnrichmentJobService jobService(PartitionConfiguration partitionConfig) {
+        PartitionedEnrichmentService enrichment = new PartitionedEnrichmentService(tradeService,
+                new PartitionRouter(partitionConfig), Map.of(), 1024);
+        return new EnrichmentJobService(new CsvParser(metrics), enrichment,
+                new TradeDeduplicator(new DedupConfiguration(), metrics), new TradeCsvFormatter(),
+                new TradeRowSplicer(metrics), tradeService, jobConfig);
+    }
+
+    private static Flux<DataBuffer> body(String csv) {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void awaitSpoolFiles(long expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            try (Stream<Path> files = Files.list(spoolDir)) {
+                if (files.filter(file -> file.toString().endsWith(".in.csv")).count() == expected) {
+                    return;
+                }
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private static void awaitFinished(EnrichmentJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!job.isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+}
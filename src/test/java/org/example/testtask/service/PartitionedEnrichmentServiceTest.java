@@ -0,0 +1,132 @@
+package org.example.testtask.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.service.PartitionedEnrichmentService;
+import org.example.testtask.domain.service.ProductCatalogService;
+import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.infrastructure.partition.PartitionConfiguration;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+import org.example.testtask.infrastructure.partition.ShardClient;
+import org.example.testtask.support.TestCatalogs;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Три вузли в одному процесі, кожен тримає лише свій шард каталогу; між собою вони з'єднані шард-клієнтами в пам'яті.
+ */
+class PartitionedEnrichmentServiceTest {
+
+    private static final List<String> NODES = List.of("node-a", "node-b", "node-c");
+    private static final List<Product> PRODUCTS = IntStream.range(0, 300)
+            .mapToObj(i -> new Product(String.valueOf(i), "Product " + i))
+            .toList();
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> remoteRows = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        NODES.forEach(id -> nodes.put(id, new Node(id)));
+        nodes.values().forEach(node -> {
+            node.catalog.replace(PRODUCTS);
+            node.service = node.coordinator(64);
+        });
+    }
+
+    @Test
+    void shouldKeepOnlyTheOwnedShardOfTheCatalogOnEachNode() {
+        int total = 0;
+        for (Node node : nodes.values()) {
+            int size = node.catalog.current().size();
+            assertTrue(size > 0 && size < PRODUCTS.size(), node.id + " holds " + size + " products");
+            total += size;
+        }
+        assertEquals(PRODUCTS.size(), total);
+    }
+
+    @Test
+    void shouldEnrichAcrossShardsAndMergeResultsInOrder() {
+        List<Trade> trades = IntStream.range(0, 5_000)
+                .mapToObj(i -> trade(String.valueOf(i % 320)))
+                .toList();
+
+        List<Trade> enriched = nodes.get("node-a").service
+                .enrich(Flux.fromIterable(trades))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(trades.size(), enriched.size());
+        for (int i = 0; i < trades.size(); i++) {
+            String productId = trades.get(i).getProductId();
+            assertEquals(productId, enriched.get(i).getProductId());
+            String expected = Integer.parseInt(productId) < PRODUCTS.size() ? "Product " + productId : "Missing Product Name";
+            assertEquals(expected, enriched.get(i).getProductName());
+        }
+        assertTrue(remoteRows.get("node-b").get() > 0 && remoteRows.get("node-c").get() > 0,
+                "Both remote shards should receive work: " + remoteRows);
+    }
+
+    private Trade trade(String productId) {
+        return new Trade(LocalDate.of(2024, 1, 15), productId, "EUR", new BigDecimal("10.50"));
+    }
+
+    private static PartitionConfiguration config(String nodeId) {
+        PartitionConfiguration config = new PartitionConfiguration();
+        config.setEnabled(true);
+        config.setNodeId(nodeId);
+        Map<String, String> urls = new LinkedHashMap<>();
+        NODES.forEach(id -> urls.put(id, "http://" + id));
+        config.setNodes(urls);
+        return config;
+    }
+
+    private final class Node {
+
+        private final String id;
+        private final PartitionRouter router;
+        private final ProductCatalogService catalog;
+        private final TradeService tradeService;
+        private PartitionedEnrichmentService service;
+
+        private Node(String id) {
+            this.id = id;
+            this.router = new PartitionRouter(config(id));
+            this.catalog = TestCatalogs.inMemory(null, router);
+            this.tradeService = new TradeService(new EnrichmentMetrics(new SimpleMeterRegistry()), catalog);
+        }
+
+        PartitionedEnrichmentService coordinator(int batchSize) {
+            Map<String, ShardClient> remote = new HashMap<>();
+            nodes.forEach((nodeId, node) -> {
+                if (!nodeId.equals(id)) {
+                    // Замість HTTP-переходу: збагачує на шарді іншого вузла в іншому потоці
+                    remote.put(nodeId, part -> {
+                        remoteRows.computeIfAbsent(nodeId, key -> new AtomicInteger()).addAndGet(part.size());
+                        return node.service.enrichLocal(Flux.fromIterable(part))
+                                .subscribeOn(Schedulers.parallel());
+                    });
+                }
+            });
+            return new PartitionedEnrichmentService(tradeService, router, remote, batchSize);
+        }
+    }
+}
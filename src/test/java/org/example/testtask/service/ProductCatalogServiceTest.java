@@ -0,0 +1,119 @@
+package org.example.testtask.service;
+
+import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.service.ProductCatalogService;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.catalog.CatalogConfiguration;
+import org.example.testtask.infrastructure.catalog.CatalogSnapshotStore;
+import org.example.testtask.infrastructure.catalog.ProductCatalog;
+import org.example.testtask.infrastructure.partition.PartitionConfiguration;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogServiceTest {
+
+    @Mock
+    private RedisProductCache redisProductCache;
+
+    @TempDir
+    Path tempDir;
+
+    private CatalogSnapshotStore snapshotStore;
+
+    @BeforeEach
+    void setUp() {
+        CatalogConfiguration config = new CatalogConfiguration();
+        config.setSnapshotFile(tempDir.resolve("catalog.bin"));
+        snapshotStore = new CatalogSnapshotStore(config);
+    }
+
+    @Test
+    void shouldServeSnapshotAndKeepItWhenRedisVersionMatches() {
+        snapshotStore.save(ProductCatalog.build(5, List.of(new Product("1", "Treasury Bills Domestic"))));
+        when(redisProductCache.getCatalogVersion()).thenReturn(5L);
+
+        ProductCatalogService catalogService = newService();
+        catalogService.loadSnapshot();
+        catalogService.refreshIfStale();
+
+        assertEquals("Treasury Bills Domestic", catalogService.findProductName("1"));
+        verify(redisProductCache, never()).loadAllProducts();
+    }
+
+    @Test
+    void shouldReloadFromRedisWhenSnapshotIsStale() {
+        snapshotStore.save(ProductCatalog.build(5, List.of(new Product("1", "Treasury Bills Domestic"))));
+        when(redisProductCache.getCatalogVersion()).thenReturn(6L);
+        when(redisProductCache.loadAllProducts()).thenReturn(Map.of("2", new Product("2", "Corporate Bonds Domestic")));
+
+        ProductCatalogService catalogService = newService();
+        catalogService.loadSnapshot();
+        catalogService.refreshIfStale();
+
+        assertNull(catalogService.findProductName("1"));
+        assertEquals("Corporate Bonds Domestic", catalogService.findProductName("2"));
+        assertEquals(6, snapshotStore.load().orElseThrow().getVersion());
+    }
+
+    @Test
+    void shouldReloadEmptyCatalogWhenRedisHasProductsWithoutVersion() {
+        when(redisProductCache.getCatalogVersion()).thenReturn(0L);
+        when(redisProductCache.hasProducts()).thenReturn(true);
+        when(redisProductCache.loadAllProducts()).thenReturn(Map.of("2", new Product("2", "Corporate Bonds Domestic")));
+
+        ProductCatalogService catalogService = newService();
+
+        // Версії 0 збігаються, але порожній каталог не може бути актуальним, коли хеш у Redis заповнений
+        assertTrue(catalogService.refreshIfStale());
+        assertEquals("Corporate Bonds Domestic", catalogService.findProductName("2"));
+    }
+
+    @Test
+    void shouldMergeUploadsUnderNewVersion() {
+        when(redisProductCache.incrementCatalogVersion()).thenReturn(1L, 2L);
+
+        ProductCatalogService catalogService = newService();
+        catalogService.merge(List.of(new Product("1", "Treasury Bills Domestic")));
+        catalogService.merge(List.of(new Product("2", "Corporate Bonds Domestic")));
+
+        assertEquals(2, catalogService.current().getVersion());
+        assertEquals("Treasury Bills Domestic", catalogService.findProductName("1"));
+        assertEquals("Corporate Bonds Domestic", catalogService.findProductName("2"));
+        assertEquals(2, snapshotStore.load().orElseThrow().size());
+    }
+
+    @Test
+    void shouldReloadFromRedisWhenAnotherNodeChangedCatalog() {
+        when(redisProductCache.incrementCatalogVersion()).thenReturn(4L);
+        when(redisProductCache.loadAllProducts()).thenReturn(Map.of(
+                "1", new Product("1", "Treasury Bills Domestic"),
+                "2", new Product("2", "Corporate Bonds Domestic")));
+
+        ProductCatalogService catalogService = newService();
+        catalogService.merge(List.of(new Product("2", "Corporate Bonds Domestic")));
+
+        assertEquals(4, catalogService.current().getVersion());
+        assertEquals("Treasury Bills Domestic", catalogService.findProductName("1"));
+    }
+
+    private ProductCatalogService newService() {
+        return new ProductCatalogService(redisProductCache, snapshotStore, new PartitionRouter(new PartitionConfiguration()));
+    }
+}
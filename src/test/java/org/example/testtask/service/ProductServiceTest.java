@@ -1,21 +1,43 @@
 package org.example.testtask.service;
 
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.example.testtask.domain.model.Product;
+import org.example.testtask.domain.service.ProductCatalogService;
 import org.example.testtask.domain.service.ProductService;
+import org.example.testtask.infrastructure.cache.ProductWriteBehindQueue;
 import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.catalog.ProductCatalog;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +46,15 @@ class ProductServiceTest {
     @Mock
     private RedisProductCache redisProductCache;
 
+    @Mock
+    private ProductCatalogService catalogService;
+
+    @Mock
+    private ProductWriteBehindQueue writeBehindQueue;
+
+    @Spy
+    private EnrichmentMetrics metrics = new EnrichmentMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private ProductService productService;
 
@@ -37,7 +68,7 @@ class ProductServiceTest {
     @Test
     void shouldGetProductById() {
         // given
-        when(redisProductCache.getProduct("1")).thenReturn(Optional.ofNullable(validProduct));
+        when(redisProductCache.getProductReactive("1")).thenReturn(Mono.just(validProduct));
 
         // when
         Mono<Product> result = productService.getProductById("1");
@@ -50,9 +81,20 @@ class ProductServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldServeProductFromCatalogWithoutRedis() {
+        when(catalogService.findProduct("1")).thenReturn(Optional.of(validProduct));
+
+        StepVerifier.create(productService.getProductById("1"))
+                .expectNext(validProduct)
+                .verifyComplete();
+
+        verify(redisProductCache, never()).getProductReactive("1");
+    }
+
     @Test
     void shouldReturnFallbackForMissingProduct() {
-        when(redisProductCache.getProduct("999")).thenReturn(null);
+        when(redisProductCache.getProductReactive("999")).thenReturn(Mono.empty());
 
         Mono<Product> result = productService.getProductById("999");
 
@@ -63,10 +105,34 @@ class ProductServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldRecordLookupEventWhenRedisFails() throws IOException {
+        when(redisProductCache.getProductReactive("1")).thenReturn(Mono.error(new IllegalStateException("down")));
+        Path dump = Files.createTempFile("product-lookup", ".jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.testtask.ProductLookup").withoutThreshold();
+            recording.start();
+            Mono<Product> lookup = productService.getProductById("1");
+            StepVerifier.create(lookup).verifyError(IllegalStateException.class);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+                .filter(event -> event.getEventType().getName().equals("org.example.testtask.ProductLookup"))
+                .toList();
+        Files.deleteIfExists(dump);
+
+        assertEquals(1, events.size());
+        assertEquals("1", events.get(0).getString("productId"));
+        assertEquals("failed", events.get(0).getString("tier"));
+    }
+
     @Test
     void shouldGetProductsByIds() {
-        when(redisProductCache.getProduct("1")).thenReturn(Optional.ofNullable(validProduct));
-        when(redisProductCache.getProduct("2")).thenReturn(Optional.of(new Product("2", "test product 2")));
+        when(redisProductCache.getProductsReactive(List.of("1", "2")))
+                .thenReturn(Mono.just(Map.of("1", validProduct, "2", new Product("2", "test product 2"))));
 
         Flux<Product> result = productService.getProductsByIds(Flux.just("1", "2"));
 
@@ -82,8 +148,8 @@ class ProductServiceTest {
 
     @Test
     void shouldHandleMixOfValidAndInvalidProducts() {
-        when(redisProductCache.getProduct("1")).thenReturn(Optional.ofNullable(validProduct));
-        when(redisProductCache.getProduct("999")).thenReturn(null);
+        when(redisProductCache.getProductsReactive(List.of("1", "999")))
+                .thenReturn(Mono.just(Map.of("1", validProduct)));
 
         Flux<Product> result = productService.getProductsByIds(Flux.just("1", "999"));
 
@@ -97,13 +163,63 @@ class ProductServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldResolveCatalogHitsLocallyAndBatchTheRestIntoOneMultiGet() {
+        List<String> ids = IntStream.range(0, 1200).mapToObj(String::valueOf).toList();
+        when(catalogService.findProduct(any())).thenAnswer(invocation -> {
+            String id = invocation.getArgument(0);
+            return Integer.parseInt(id) % 2 == 0 ? Optional.of(new Product(id, "catalog " + id)) : Optional.empty();
+        });
+        when(redisProductCache.getProductsReactive(any())).thenAnswer(invocation -> {
+            List<String> requested = invocation.getArgument(0);
+            return Mono.just(requested.stream()
+                    .filter(id -> !id.endsWith("1"))
+                    .collect(Collectors.toMap(id -> id, id -> new Product(id, "redis " + id))));
+        });
+
+        List<Product> products = productService.getProductsByIds(Flux.fromIterable(ids)).collectList().block();
+
+        assertEquals(ids, products.stream().map(Product::getProductId).toList());
+        assertEquals("catalog 0", products.get(0).getProductName());
+        assertEquals("Missing Product Name", products.get(1).getProductName());
+        assertEquals("redis 3", products.get(3).getProductName());
+        verify(redisProductCache, times(3)).getProductsReactive(any());
+        verify(redisProductCache, never()).getProductReactive(any());
+    }
+
+    @Test
+    void shouldTagOnlyCatalogBackedProductsWithCatalogVersion() {
+        ProductCatalog catalog = ProductCatalog.build(3, List.of(validProduct));
+        when(catalogService.current()).thenReturn(catalog);
+
+        assertEquals(Optional.of("3-" + Integer.toHexString(catalog.getChecksum())), productService.catalogTag("1"));
+        assertEquals(Optional.empty(), productService.catalogTag("999"));
+        verify(redisProductCache, never()).getProductReactive(any());
+    }
+
     @Test
     void shouldLoadProducts() {
         Flux<Product> products = Flux.just(validProduct);
+        when(redisProductCache.saveProducts(any())).thenAnswer(invocation -> invocation.getArgument(0));
 
         Mono<Void> result = productService.loadProducts(products);
 
         StepVerifier.create(result)
                 .verifyComplete();
+
+        verify(redisProductCache).saveProducts(any());
+        verify(catalogService).merge(List.of(validProduct));
+    }
+
+    @Test
+    void shouldAckUploadBeforeRedisWriteInWriteBehindMode() {
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.enqueue(List.of(validProduct))).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(productService.loadProducts(Flux.just(validProduct)))
+                .verifyComplete();
+
+        verify(catalogService).mergeLocal(List.of(validProduct));
+        verify(redisProductCache, never()).saveProducts(any());
     }
-}
\ No newline at end of file
+}
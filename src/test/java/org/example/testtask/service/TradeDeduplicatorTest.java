@@ -0,0 +1,83 @@
+package org.example.testtask.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.service.TradeDeduplicator;
+import org.example.testtask.infrastructure.dedup.DedupConfiguration;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TradeDeduplicatorTest {
+
+    private SimpleMeterRegistry registry;
+    private DedupConfiguration config;
+    private TradeDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        config = new DedupConfiguration();
+        config.setEnabled(true);
+        config.setInitialCapacity(100);
+        deduplicator = new TradeDeduplicator(config, new EnrichmentMetrics(registry));
+    }
+
+    @Test
+    void shouldDropResentTradesIncludingEquivalentPrices() {
+        Flux<Trade> trades = Flux.just(
+                trade("1", "USD", "100.00"),
+                trade("2", "USD", "100.00"),
+                trade("1", "USD", "100.0"),
+                trade("1", "EUR", "100.00"),
+                trade("2", "USD", "100.00"));
+
+        StepVerifier.create(deduplicator.deduplicate(trades))
+                .expectNext(trade("1", "USD", "100.00"), trade("2", "USD", "100.00"), trade("1", "EUR", "100.00"))
+                .verifyComplete();
+        assertEquals(2, registry.get("enrichment.rows.duplicate").tag("action", "dropped").counter().count());
+    }
+
+    @Test
+    void shouldKeepDuplicatesInReportMode() {
+        config.setMode(DedupConfiguration.Mode.REPORT);
+
+        StepVerifier.create(deduplicator.deduplicate(Flux.just(trade("1", "USD", "1"), trade("1", "USD", "1"))))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertEquals(1, registry.get("enrichment.rows.duplicate").tag("action", "reported").counter().count());
+    }
+
+    @Test
+    void shouldUseSeparateFilterPerSubscription() {
+        Flux<Trade> deduplicated = deduplicator.deduplicate(Flux.just(trade("1", "USD", "1")));
+
+        StepVerifier.create(deduplicated).expectNextCount(1).verifyComplete();
+        StepVerifier.create(deduplicated).expectNextCount(1).verifyComplete();
+    }
+
+    @Test
+    void shouldPassThroughWhenDisabled() {
+        config.setEnabled(false);
+
+        StepVerifier.create(deduplicator.deduplicate(Flux.just(trade("1", "USD", "1"), trade("1", "USD", "1"))))
+                .expectNextCount(2)
+                .verifyComplete();
+    }
+
+    private static Trade trade(String productId, String currency, String price) {
+        return Trade.partialBuilder()
+                .date(LocalDate.of(2024, 1, 15))
+                .productId(productId)
+                .currency(currency)
+                .price(new BigDecimal(price))
+                .build();
+    }
+}
@@ -1,14 +1,21 @@
 package org.example.testtask.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.domain.model.GroupAggregate;
 import org.example.testtask.domain.model.Product;
 import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.model.TradeSummary;
+import org.example.testtask.domain.service.ProductCatalogService;
 import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
 import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.support.TestCatalogs;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -16,8 +23,12 @@ import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 
 @ExtendWith(MockitoExtension.class)
 class TradeServiceTest {
@@ -25,6 +36,14 @@ class TradeServiceTest {
     @Mock
     private CsvParser csvParser;
 
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Spy
+    private EnrichmentMetrics metrics = new EnrichmentMetrics(registry);
+
+    @Spy
+    private ProductCatalogService catalogService = TestCatalogs.inMemory(null);
+
     @InjectMocks
     private TradeService tradeService;
 
@@ -114,4 +133,58 @@ class TradeServiceTest {
                                 trade.getProductId().equals("1"))
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldAggregateTradesAcrossParallelRails() {
+        tradeService.loadProducts(Flux.just(validProduct, new Product("2", "other"))).block();
+        Flux<Trade> trades = Flux.range(0, 1_000)
+                .map(i -> Trade.partialBuilder()
+                        .date(LocalDate.of(2024, 1, 1 + i % 2))
+                        .productId(String.valueOf(i % 3 + 1))
+                        .currency(i % 2 == 0 ? "USD" : "EUR")
+                        .price(BigDecimal.valueOf(i))
+                        .build());
+
+        TradeSummary summary = tradeService.aggregateTrades(trades, 4).block();
+
+        assertEquals(1_000, summary.getTrades());
+        assertEquals(333, summary.getMissingProducts());
+        assertEquals(BigDecimal.valueOf(499_500), summary.getTotalPrice());
+        assertEquals(List.of("EUR", "USD"), summary.getByCurrency().stream().map(GroupAggregate::getKey).toList());
+        GroupAggregate usd = summary.getByCurrency().get(1);
+        assertEquals(500, usd.getCount());
+        assertEquals(BigDecimal.valueOf(249_500), usd.getTotal());
+        assertEquals(BigDecimal.ZERO, usd.getMin());
+        assertEquals(BigDecimal.valueOf(998), usd.getMax());
+        assertEquals(new BigDecimal("499.0000"), usd.getAverage());
+        GroupAggregate first = summary.getByProduct().get(0);
+        assertEquals("1", first.getKey());
+        assertEquals("test", first.getProductName());
+        assertEquals(334, first.getCount());
+        assertEquals(List.of("2024-01-01", "2024-01-02"), summary.getByDate().stream().map(GroupAggregate::getKey).toList());
+    }
+
+    @Test
+    void shouldReturnEmptySummaryForNoTrades() {
+        TradeSummary summary = tradeService.aggregateTrades(Flux.empty(), 4).block();
+
+        assertEquals(0, summary.getTrades());
+        assertEquals(BigDecimal.ZERO, summary.getTotalPrice());
+        assertTrue(summary.getByProduct().isEmpty());
+    }
+
+    @Test
+    void shouldCountEveryTradeButTimeOnlyASample() {
+        tradeService.loadProducts(Flux.just(validProduct)).block();
+
+        for (int i = 0; i < 6_400; i++) {
+            tradeService.resolveProductName(i % 2 == 0 ? "1" : "missing");
+        }
+
+        assertEquals(6_400, registry.get("enrichment.rows.enriched").counter().count());
+        assertEquals(3_200, registry.get("enrichment.products.missing").counter().count());
+        long timed = registry.get("enrichment.enrich.latency").timer().count();
+        // У середньому міряється один трейд із 64, тобто близько сотні
+        assertTrue(timed > 0 && timed < 400, "timed " + timed);
+    }
+}
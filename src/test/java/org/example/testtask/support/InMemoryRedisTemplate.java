@@ -0,0 +1,245 @@
+package org.example.testtask.support;
+
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanCursor;
+import org.springframework.data.redis.core.ScanIteration;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Заміна Redis у пам'яті процесу для тестів і бенчмарків.
+ * Підтримує лише ті команди над значеннями й хешами, які видає застосунок; решта кидає виняток.
+ * {@link #strings()} віддає ті самі дані через {@link StringRedisTemplate}, разом зі скриптами
+ * {@code HMGET} і {@code HSET} по кількох бакетах (термін життя ігнорується).
+ */
+public class InMemoryRedisTemplate extends RedisTemplate<String, Object> {
+
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+    private final Map<String, Map<Object, Object>> hashes = new ConcurrentHashMap<>();
+
+    private final ValueOperations<String, Object> valueOperations = proxy(ValueOperations.class, this::valueCommand);
+    private final HashOperations<String, Object, Object> hashOperations = proxy(HashOperations.class, this::hashCommand);
+    private final StringRedisTemplate strings = new InMemoryStringRedisTemplate();
+    private final AtomicInteger scanPages = new AtomicInteger();
+
+    @Override
+    public void afterPropertiesSet() {
+        // Фабрики з'єднань немає: кожна команда обслуговується з мап вище
+    }
+
+    @Override
+    public ValueOperations<String, Object> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+        return (HashOperations<String, HK, HV>) (HashOperations<String, ?, ?>) hashOperations;
+    }
+
+    @Override
+    public Boolean delete(String key) {
+        return values.remove(key) != null | hashes.remove(key) != null;
+    }
+
+    @Override
+    public Boolean hasKey(String key) {
+        return values.containsKey(key) || hashes.containsKey(key);
+    }
+
+    public StringRedisTemplate strings() {
+        return strings;
+    }
+
+    /**
+     * Кількість полів у хеші {@code key}.
+     */
+    public int hashSize(String key) {
+        return hashes.getOrDefault(key, Map.of()).size();
+    }
+
+    /**
+     * Кількість сторінок SCAN, відданих від початку.
+     */
+    public int scanPages() {
+        return scanPages.get();
+    }
+
+    public void clear() {
+        values.clear();
+        hashes.clear();
+    }
+
+    public int size() {
+        return values.size() + hashes.size();
+    }
+
+    private Object valueCommand(String command, Object[] args) {
+        return switch (command) {
+            case "get" -> values.get((String) args[0]);
+            case "set" -> {
+                values.put((String) args[0], args[1]);
+                yield null;
+            }
+            case "setIfAbsent" -> values.putIfAbsent((String) args[0], args[1]) == null;
+            case "increment" -> values.merge((String) args[0], args.length > 1 ? args[1] : 1L,
+                    (current, delta) -> (Long) current + (Long) delta);
+            case "multiGet" -> {
+                List<Object> result = new ArrayList<>();
+                for (Object key : (Collection<?>) args[0]) {
+                    result.add(values.get((String) key));
+                }
+                yield result;
+            }
+            case "multiSet" -> {
+                ((Map<?, ?>) args[0]).forEach((key, value) -> values.put((String) key, value));
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException("ValueOperations." + command);
+        };
+    }
+
+    private Object hashCommand(String command, Object[] args) {
+        String key = (String) args[0];
+        return switch (command) {
+            case "put" -> {
+                hashes.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(args[1], args[2]);
+                yield null;
+            }
+            case "putAll" -> {
+                hashes.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).putAll((Map<?, ?>) args[1]);
+                yield null;
+            }
+            case "get" -> hashes.getOrDefault(key, Map.of()).get(args[1]);
+            case "delete" -> {
+                Map<Object, Object> hash = hashes.getOrDefault(key, Map.of());
+                long removed = 0;
+                for (Object field : (Object[]) args[1]) {
+                    removed += hash.remove(field) != null ? 1 : 0;
+                }
+                yield removed;
+            }
+            case "multiGet" -> {
+                Map<Object, Object> hash = hashes.getOrDefault(key, Map.of());
+                List<Object> result = new ArrayList<>();
+                for (Object field : (Collection<?>) args[1]) {
+                    result.add(hash.get(field));
+                }
+                yield result;
+            }
+            case "scan" -> scan(hashes.getOrDefault(key, Map.of()), (ScanOptions) args[1]);
+            case "entries" -> Map.copyOf(hashes.getOrDefault(key, Map.of()));
+            case "size" -> (long) hashes.getOrDefault(key, Map.of()).size();
+            default -> throw new UnsupportedOperationException("HashOperations." + command);
+        };
+    }
+
+    /**
+     * HSCAN по знімку хешу: одна сторінка з {@code COUNT} полів за звернення.
+     */
+    private Cursor<Map.Entry<Object, Object>> scan(Map<Object, Object> hash, ScanOptions options) {
+        List<Map.Entry<Object, Object>> entries = new ArrayList<>(hash.entrySet());
+        int count = options.getCount() == null ? 10 : options.getCount().intValue();
+        return new ScanCursor<Map.Entry<Object, Object>>(options) {
+            @Override
+            protected ScanIteration<Map.Entry<Object, Object>> doScan(CursorId cursorId, ScanOptions scanOptions) {
+                scanPages.incrementAndGet();
+                int from = Integer.parseInt(cursorId.getCursorId());
+                int to = Math.min(entries.size(), from + count);
+                CursorId nextCursor = to == entries.size() ? CursorId.initial() : CursorId.of(to);
+                return new ScanIteration<>(nextCursor, List.copyOf(entries.subList(from, to)));
+            }
+        }.open();
+    }
+
+    private class InMemoryStringRedisTemplate extends StringRedisTemplate {
+
+        @Override
+        public void afterPropertiesSet() {
+            // Обслуговується з мап зовнішнього шаблону
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <HK, HV> HashOperations<String, HK, HV> opsForHash() {
+            return InMemoryRedisTemplate.this.opsForHash();
+        }
+
+        @Override
+        public Boolean delete(String key) {
+            return InMemoryRedisTemplate.this.delete(key);
+        }
+
+        @Override
+        public Boolean expire(String key, long timeout, TimeUnit unit) {
+            return hasKey(key);
+        }
+
+        @Override
+        public Boolean hasKey(String key) {
+            return InMemoryRedisTemplate.this.hasKey(key);
+        }
+
+        /**
+         * Застосунок запускає два скрипти, що розрізняються за текстом: {@code HMGET} по кількох бакетах, де
+         * {@code ARGV} для кожного ключа містить кількість полів і самі поля, та {@code HSET} по кількох бакетах,
+         * де за кількістю йдуть пари поле/значення.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+            boolean write = script.getScriptAsString().contains("'HSET'");
+            List<Object> values = new ArrayList<>();
+            int arg = 0;
+            for (String key : keys) {
+                int count = Integer.parseInt((String) args[arg++]);
+                Map<Object, Object> hash = write
+                        ? hashes.computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                        : hashes.getOrDefault(key, Map.of());
+                for (int i = 0; i < count; i++) {
+                    if (write) {
+                        hash.put(args[arg++], args[arg++]);
+                    } else {
+                        values.add(hash.get(args[arg++]));
+                    }
+                }
+            }
+            return write ? (T) Long.valueOf(keys.size()) : (T) values;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Command command) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "@InMemoryRedisTemplate";
+                };
+            }
+            return command.execute(method.getName(), args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @FunctionalInterface
+    private interface Command {
+        Object execute(String name, Object[] args);
+    }
+}
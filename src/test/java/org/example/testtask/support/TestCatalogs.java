@@ -0,0 +1,30 @@
+package org.example.testtask.support;
+
+import org.example.testtask.domain.service.ProductCatalogService;
+import org.example.testtask.infrastructure.cache.RedisProductCache;
+import org.example.testtask.infrastructure.catalog.CatalogConfiguration;
+import org.example.testtask.infrastructure.catalog.CatalogSnapshotStore;
+import org.example.testtask.infrastructure.partition.PartitionConfiguration;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
+
+/**
+ * Сервіс каталогу продуктів для тестів і бенчмарків, який ніколи не пише знімок на диск.
+ */
+public final class TestCatalogs {
+
+    private TestCatalogs() {
+    }
+
+    public static ProductCatalogService inMemory(RedisProductCache redisProductCache) {
+        return inMemory(redisProductCache, new PartitionRouter(new PartitionConfiguration()));
+    }
+
+    /**
+     * Сервіс каталогу, що тримає лише шард, який належить локальному вузлу роутера.
+     */
+    public static ProductCatalogService inMemory(RedisProductCache redisProductCache, PartitionRouter partitionRouter) {
+        CatalogConfiguration config = new CatalogConfiguration();
+        config.setSnapshotEnabled(false);
+        return new ProductCatalogService(redisProductCache, new CatalogSnapshotStore(config), partitionRouter);
+    }
+}
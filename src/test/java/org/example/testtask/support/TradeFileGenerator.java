@@ -0,0 +1,216 @@
+package org.example.testtask.support;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Детермінований генератор CSV-файлів трейдів для навантажувальних тестів і бенчмарків.
+ * Ті самі налаштування й seed завжди дають побайтово однаковий результат.
+ */
+public final class TradeFileGenerator {
+
+    public static final String HEADER = "date,productId,currency,price";
+
+    public enum Distribution {
+        UNIFORM,
+        ZIPF
+    }
+
+    private final long rows;
+    private final int productCount;
+    private final Distribution distribution;
+    private final double zipfExponent;
+    private final double missingProductRatio;
+    private final double malformedRowRatio;
+    private final LocalDate startDate;
+    private final int days;
+    private final List<String> currencies;
+    private final long seed;
+
+    private TradeFileGenerator(Builder builder) {
+        if (builder.endDate.isBefore(builder.startDate)) {
+            throw new IllegalArgumentException("endDate must not be before startDate");
+        }
+        this.rows = builder.rows;
+        this.productCount = builder.productCount;
+        this.distribution = builder.distribution;
+        this.zipfExponent = builder.zipfExponent;
+        this.missingProductRatio = builder.missingProductRatio;
+        this.malformedRowRatio = builder.malformedRowRatio;
+        this.startDate = builder.startDate;
+        this.days = (int) ChronoUnit.DAYS.between(builder.startDate, builder.endDate) + 1;
+        this.currencies = List.copyOf(builder.currencies);
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        ProductSampler sampler = distribution == Distribution.ZIPF
+                ? new ZipfSampler(productCount, zipfExponent)
+                : r -> 1 + r.nextInt(productCount);
+        String[] dates = new String[days];
+        for (int i = 0; i < days; i++) {
+            dates[i] = startDate.plusDays(i).format(DateTimeFormatter.BASIC_ISO_DATE);
+        }
+
+        writer.write(HEADER);
+        writer.write('\n');
+        StringBuilder line = new StringBuilder(48);
+        for (long i = 0; i < rows; i++) {
+            line.setLength(0);
+            String date = dates[random.nextInt(days)];
+            int productId = random.nextDouble() < missingProductRatio
+                    ? productCount + 1 + random.nextInt(productCount)
+                    : sampler.next(random);
+            String currency = currencies.get(random.nextInt(currencies.size()));
+            int units = random.nextInt(100_000);
+            int cents = random.nextInt(100);
+            if (random.nextDouble() < malformedRowRatio) {
+                appendMalformed(line, random.nextInt(4), date, productId, currency, units);
+            } else {
+                line.append(date).append(',').append(productId).append(',').append(currency).append(',')
+                        .append(units).append('.').append(cents < 10 ? "0" : "").append(cents);
+            }
+            writer.append(line).append('\n');
+        }
+        writer.flush();
+    }
+
+    public Path writeTo(Path file) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeTo(writer);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String generate() {
+        StringWriter writer = new StringWriter((int) Math.min(Integer.MAX_VALUE, rows * 32));
+        try {
+            writeTo(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private static void appendMalformed(StringBuilder line, int kind, String date, int productId, String currency, int units) {
+        switch (kind) {
+            case 0 -> line.append("2023-13-45,").append(productId).append(',').append(currency).append(',').append(units);
+            case 1 -> line.append(date).append(',').append(productId).append(',').append(currency).append(",n/a");
+            case 2 -> line.append(date).append(',').append(productId);
+            default -> line.append(date).append(",,").append(currency).append(',').append(units);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ProductSampler {
+        int next(SplittableRandom random);
+    }
+
+    /**
+     * Вибирає ID продуктів 1..n з імовірністю, пропорційною 1/rank^s (rank 1 — найгарячіший продукт).
+     */
+    private static final class ZipfSampler implements ProductSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 1; rank <= n; rank++) {
+                sum += 1.0 / Math.pow(rank, exponent);
+                cumulative[rank - 1] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        @Override
+        public int next(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return (index >= 0 ? index : -index - 1) + 1;
+        }
+    }
+
+    public static final class Builder {
+        private long rows = 1_000;
+        private int productCount = 79_991;
+        private Distribution distribution = Distribution.UNIFORM;
+        private double zipfExponent = 1.0;
+        private double missingProductRatio;
+        private double malformedRowRatio;
+        private LocalDate startDate = LocalDate.of(2023, 1, 1);
+        private LocalDate endDate = LocalDate.of(2023, 12, 31);
+        private List<String> currencies = List.of("USD", "EUR", "GBP", "JPY", "CHF");
+        private long seed = 42;
+
+        public Builder rows(long rows) {
+            this.rows = rows;
+            return this;
+        }
+
+        public Builder productCount(int productCount) {
+            this.productCount = productCount;
+            return this;
+        }
+
+        public Builder uniform() {
+            this.distribution = Distribution.UNIFORM;
+            return this;
+        }
+
+        public Builder zipf(double exponent) {
+            this.distribution = Distribution.ZIPF;
+            this.zipfExponent = exponent;
+            return this;
+        }
+
+        public Builder missingProductRatio(double ratio) {
+            this.missingProductRatio = ratio;
+            return this;
+        }
+
+        public Builder malformedRowRatio(double ratio) {
+            this.malformedRowRatio = ratio;
+            return this;
+        }
+
+        public Builder dateRange(LocalDate startDate, LocalDate endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            return this;
+        }
+
+        public Builder currencies(String... currencies) {
+            this.currencies = List.of(currencies);
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public TradeFileGenerator build() {
+            return new TradeFileGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.testtask.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TradeFileGeneratorTest {
+
+    @Test
+    void shouldBeDeterministicForSameSeed() {
+        TradeFileGenerator.Builder builder = TradeFileGenerator.builder().rows(500).zipf(1.2).malformedRowRatio(0.1);
+
+        assertEquals(builder.seed(7).build().generate(), builder.seed(7).build().generate());
+        assertNotEquals(builder.seed(7).build().generate(), builder.seed(8).build().generate());
+    }
+
+    @Test
+    void shouldRespectRowCountAndDateRange() {
+        String csv = TradeFileGenerator.builder()
+                .rows(1_000)
+                .dateRange(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29))
+                .build()
+                .generate();
+
+        String[] lines = csv.split("\n");
+        assertEquals(TradeFileGenerator.HEADER, lines[0]);
+        assertEquals(1_001, lines.length);
+        assertTrue(Arrays.stream(lines).skip(1).allMatch(line -> line.startsWith("202402")));
+    }
+
+    @Test
+    void shouldSkewProductsWithZipf() {
+        String csv = TradeFileGenerator.builder().rows(10_000).productCount(1_000).zipf(1.2).build().generate();
+
+        Map<String, Long> counts = Arrays.stream(csv.split("\n"))
+                .skip(1)
+                .map(line -> line.split(",")[1])
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        // Найгарячіший продукт має займати велику частку каталогу з 1000 продуктів
+        assertTrue(counts.get("1") > 1_000);
+    }
+
+    @Test
+    void shouldGenerateMissingProductsBeyondCatalog() {
+        String csv = TradeFileGenerator.builder().rows(1_000).productCount(100).missingProductRatio(1.0).build().generate();
+
+        assertTrue(Arrays.stream(csv.split("\n")).skip(1)
+                .mapToInt(line -> Integer.parseInt(line.split(",")[1]))
+                .allMatch(id -> id > 100));
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.testtask.web.controller;
+
+import org.example.testtask.domain.service.CatalogExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogExportControllerTest {
+
+    private CatalogExportService exportService;
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        exportService = mock(CatalogExportService.class);
+        webTestClient = WebTestClient.bindToController(new CatalogExportController(exportService)).build();
+    }
+
+    @Test
+    void shouldStreamCsvExportByDefault() {
+        when(exportService.export(CatalogExportService.Source.AUTO, CatalogExportService.Format.CSV))
+                .thenReturn(Flux.just("productId,productName\n", "1,Corporate Bonds\n"));
+
+        webTestClient.get().uri("/api/v1/products/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.parseMediaType("text/csv"))
+                .expectBody(String.class).isEqualTo("productId,productName\n1,Corporate Bonds\n");
+    }
+
+    @Test
+    void shouldStreamNdjsonFromRequestedSource() {
+        when(exportService.export(CatalogExportService.Source.REDIS, CatalogExportService.Format.NDJSON))
+                .thenReturn(Flux.just("{\"productId\":\"1\",\"productName\":\"Corporate Bonds\"}\n"));
+
+        webTestClient.get().uri("/api/v1/products/export?format=ndjson&source=redis")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"productId\":\"1\",\"productName\":\"Corporate Bonds\"}\n");
+    }
+
+    @Test
+    void shouldRejectUnknownFormat() {
+        webTestClient.get().uri("/api/v1/products/export?format=xml")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
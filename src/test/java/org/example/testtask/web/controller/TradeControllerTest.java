@@ -1,24 +1,41 @@
 package org.example.testtask.web.controller;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.example.testtask.domain.model.Product;
 import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.model.TradeSummary;
+import org.example.testtask.domain.service.PartitionedEnrichmentService;
 import org.example.testtask.domain.service.ProductService;
+import org.example.testtask.domain.service.TradeDeduplicator;
 import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.buffer.SpillConfiguration;
+import org.example.testtask.infrastructure.buffer.SpillingBuffer;
+import org.example.testtask.infrastructure.buffer.TradeSpillCodec;
+import org.example.testtask.infrastructure.catalog.CatalogConfiguration;
+import org.example.testtask.infrastructure.dedup.DedupConfiguration;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.infrastructure.partition.PartitionConfiguration;
+import org.example.testtask.infrastructure.partition.PartitionRouter;
 import org.example.testtask.infrastructure.parser.CsvParser;
+import org.example.testtask.infrastructure.parser.TradeFilter;
+import org.example.testtask.infrastructure.parser.TradeRowSplicer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
@@ -30,11 +47,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @Slf4j
@@ -60,8 +80,24 @@ public class TradeControllerTest {
         }
 
         @Bean
-        TradeController tradeController(CsvParser csvParser, TradeService tradeService, ProductService productService) {
-            return new TradeController(csvParser, tradeService, productService);
+        SpillingBuffer<Trade> tradeSpillBuffer() {
+            return new SpillingBuffer<>(new TradeSpillCodec(), new SpillConfiguration(),
+                    Schedulers.boundedElastic(), new EnrichmentMetrics(new SimpleMeterRegistry()));
+        }
+
+        @Bean
+        TradeDeduplicator tradeDeduplicator() {
+            return new TradeDeduplicator(new DedupConfiguration(), new EnrichmentMetrics(new SimpleMeterRegistry()));
+        }
+
+        @Bean
+        TradeController tradeController(CsvParser csvParser, TradeService tradeService, ProductService productService,
+                                        SpillingBuffer<Trade> tradeSpillBuffer, TradeDeduplicator tradeDeduplicator) {
+            PartitionedEnrichmentService enrichment = new PartitionedEnrichmentService(tradeService,
+                    new PartitionRouter(new PartitionConfiguration()), Map.of(), 1024);
+            return new TradeController(csvParser, tradeService, productService, tradeSpillBuffer, tradeDeduplicator,
+                    new CatalogConfiguration(), enrichment,
+                    new TradeRowSplicer(new EnrichmentMetrics(new SimpleMeterRegistry())));
         }
     }
 
@@ -77,6 +113,9 @@ public class TradeControllerTest {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private TradeController tradeController;
+
     private static final String VALID_CSV_HEADER = "date,productId,currency,price";
 
     @BeforeEach
@@ -258,6 +297,84 @@ public class TradeControllerTest {
         log.info("Verified csvParser was called once");
     }
 
+    @Test
+    @DisplayName("Should return aggregates instead of rows")
+    void summarizeTradeData_Success() {
+        TradeSummary summary = TradeSummary.builder()
+                .trades(2)
+                .totalPrice(new BigDecimal("300.70"))
+                .byProduct(List.of())
+                .byCurrency(List.of())
+                .byDate(List.of())
+                .build();
+        when(csvParser.parseTrades(any(), any(), any())).thenReturn(Flux.empty());
+        when(tradeService.aggregateTrades(any(), anyInt())).thenReturn(Mono.just(summary));
+
+        webTestClient.post()
+                .uri("/api/v1/enrich/summary")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(VALID_CSV_HEADER + "\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.trades").isEqualTo(2)
+                .jsonPath("$.totalPrice").isEqualTo(300.70)
+                .jsonPath("$.rejects.rows").isEqualTo(0)
+                .jsonPath("$.filter.scanned").isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid filter date")
+    void summarizeTradeData_InvalidFilter() {
+        webTestClient.post()
+                .uri("/api/v1/enrich/summary?from=20230132")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(VALID_CSV_HEADER + "\n")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid filter date on the row endpoint")
+    void enrichTradeData_InvalidFilter() {
+        webTestClient.post()
+                .uri("/api/v1/enrich?from=20230132")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(VALID_CSV_HEADER + "\n")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should give every subscription its own trade filter")
+    void enrichTradeData_FilterPerSubscription() {
+        when(csvParser.parseTrades(any(), any(), any())).thenReturn(Flux.empty());
+        Flux<Trade> trades = tradeController.enrichTradeData(
+                Flux.empty(), "20230101", null, null, null);
+
+        StepVerifier.create(trades).verifyComplete();
+        StepVerifier.create(trades).verifyComplete();
+
+        ArgumentCaptor<TradeFilter> filters = ArgumentCaptor.forClass(TradeFilter.class);
+        verify(csvParser, times(2)).parseTrades(any(), any(), filters.capture());
+        assertNotSame(filters.getAllValues().get(0), filters.getAllValues().get(1));
+    }
+
+    @Test
+    @DisplayName("Should splice product names into the original rows")
+    void spliceTradeData_Success() {
+        when(tradeService.resolveProductName("1")).thenReturn("Treasury Bills Domestic");
+
+        webTestClient.post()
+                .uri("/api/v1/enrich/splice")
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(VALID_CSV_HEADER + "\n20230101,1,USD,100.250\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .isEqualTo(VALID_CSV_HEADER + ",productName\n20230101,1,USD,100.250,Treasury Bills Domestic\n");
+    }
+
     @Test
     @DisplayName("Should get product name by ID successfully")
     void getProductNameById_Success() {
@@ -282,6 +399,31 @@ public class TradeControllerTest {
         log.info("Product retrieval test completed successfully");
     }
 
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with 304 without looking the product up")
+    void getProductNameById_NotModified() {
+        when(productService.catalogTag("1")).thenReturn(Optional.of("7-1a2b"));
+        when(productService.getProductById("1")).thenReturn(Mono.just(new Product("1", "Test Product")));
+
+        webTestClient.get()
+                .uri("/api/v1/product/{productId}", "1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"7-1a2b\"")
+                .expectHeader().valueEquals(HttpHeaders.CACHE_CONTROL, "max-age=0, must-revalidate")
+                .expectBody(String.class).isEqualTo("Test Product");
+
+        webTestClient.get()
+                .uri("/api/v1/product/{productId}", "1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"7-1a2b\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"7-1a2b\"")
+                .expectBody().isEmpty();
+
+        verify(productService, times(1)).getProductById("1");
+    }
+
     @Test
     @DisplayName("Should handle non-existent product ID")
     void getProductNameById_NotFound() {
@@ -303,6 +445,28 @@ public class TradeControllerTest {
         log.info("Non-existent product test completed successfully");
     }
 
+    @Test
+    @DisplayName("Should stream products for a JSON array of IDs")
+    void getProductsByIds_Success() {
+        when(productService.getProductsByIds(any())).thenAnswer(invocation -> {
+            Flux<String> ids = invocation.getArgument(0);
+            return ids.map(id -> new Product(id, "Product " + id));
+        });
+
+        webTestClient.post()
+                .uri("/api/v1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[\"1\", \"2\", 3]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[0].productId").isEqualTo("1")
+                .jsonPath("$[2].productName").isEqualTo("Product 3");
+
+        verify(productService, never()).loadProducts(any());
+    }
+
     @Test
     @DisplayName("Should handle empty CSV data")
     void uploadProducts_EmptyData_Success() {
@@ -0,0 +1,119 @@
+package org.example.testtask.web.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.rsocket.core.RSocketServer;
+import io.rsocket.transport.netty.server.CloseableChannel;
+import io.rsocket.transport.netty.server.TcpServerTransport;
+import org.example.testtask.domain.model.Trade;
+import org.example.testtask.domain.service.TradeDeduplicator;
+import org.example.testtask.domain.service.TradeService;
+import org.example.testtask.infrastructure.dedup.DedupConfiguration;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.example.testtask.infrastructure.parser.CsvParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.messaging.rsocket.RSocketRequester;
+import org.springframework.messaging.rsocket.RSocketStrategies;
+import org.springframework.messaging.rsocket.annotation.support.RSocketMessageHandler;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TradeStreamControllerTest {
+
+    private TradeStreamController controller;
+    private CloseableChannel server;
+
+    @BeforeEach
+    void setUp() {
+        EnrichmentMetrics metrics = new EnrichmentMetrics(new SimpleMeterRegistry());
+        TradeService tradeService = mock(TradeService.class);
+        when(tradeService.enrichTradeWithProduct(any())).thenAnswer(invocation -> {
+            Trade trade = invocation.getArgument(0);
+            return Mono.just(trade.withProductName("Product " + trade.getProductId()));
+        });
+        controller = new TradeStreamController(new CsvParser(metrics), tradeService,
+                new TradeDeduplicator(new DedupConfiguration(), metrics));
+    }
+
+    @Test
+    void shouldPullRowsOnlyAsFastAsTheClientRequests() {
+        AtomicLong requested = new AtomicLong();
+        Flux<String> rows = Flux.range(0, 1000)
+                .map(TradeStreamControllerTest::row)
+                .doOnRequest(requested::addAndGet);
+
+        StepVerifier.create(controller.enrichChannel(rows), 0)
+                .then(() -> assertTrue(requested.get() <= TradeStreamController.MAX_IN_FLIGHT + 2,
+                        "Rows pulled without demand: " + requested.get()))
+                .thenRequest(10)
+                .expectNextCount(10)
+                .then(() -> assertTrue(requested.get() < 100, "Rows pulled after 10 requested: " + requested.get()))
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(990)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldEnrichRowsOverRequestChannel() {
+        RSocketStrategies strategies = RSocketStrategies.builder()
+                .encoders(encoders -> encoders.add(new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build())))
+                .decoders(decoders -> decoders.add(new Jackson2JsonDecoder(Jackson2ObjectMapperBuilder.json().build())))
+                .build();
+        RSocketMessageHandler handler = new RSocketMessageHandler();
+        handler.setRSocketStrategies(strategies);
+        handler.setHandlers(List.of(controller));
+        handler.afterPropertiesSet();
+
+        server = RSocketServer.create(handler.responder())
+                .bind(TcpServerTransport.create("localhost", 0))
+                .block();
+        RSocketRequester requester = RSocketRequester.builder()
+                .rsocketStrategies(strategies)
+                .dataMimeType(MimeTypeUtils.APPLICATION_JSON)
+                .tcp("localhost", server.address().getPort());
+
+        // Перший пейлоад несе заголовок і пачку рядків, решта — по одному рядку
+        Flux<String> payloads = Flux.concat(
+                Flux.just("date,productId,currency,price\n" + row(0) + "\n" + row(1)),
+                Flux.range(2, 98).map(TradeStreamControllerTest::row));
+
+        List<Trade> trades = requester.route("trades.enrich")
+                .data(payloads)
+                .retrieveFlux(Trade.class)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(IntStream.range(0, 100).mapToObj(String::valueOf).toList(),
+                trades.stream().map(Trade::getProductId).toList());
+        assertEquals("Product 42", trades.get(42).getProductName());
+        requester.dispose();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.dispose();
+        }
+    }
+
+    private static String row(int i) {
+        return "20240115," + i + ",EUR,10.5";
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.testtask.web.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.testtask.infrastructure.admission.AdaptiveConcurrencyLimiter;
+import org.example.testtask.infrastructure.admission.AdmissionConfiguration;
+import org.example.testtask.infrastructure.admission.MemoryBudget;
+import org.example.testtask.infrastructure.metrics.EnrichmentMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlFilterTest {
+
+    private static final String CSV = "date,productId,currency,price\n" + "20160101,1,EUR,10.0\n".repeat(20_000);
+
+    @Test
+    void shouldEstimateGzipBodyByDecompressedSize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] gzip = bytes.toByteArray();
+        assertTrue(CSV.length() > gzip.length * 4L, "Sample must compress better than the budget headroom");
+        // Бюджет вміщує стиснуте тіло з запасом, але не розпаковане
+        AdmissionControlFilter filter = filter(gzip.length * 4L);
+
+        MockServerWebExchange plain = exchange(null, gzip);
+        filter.filter(plain, e -> Mono.empty()).block(Duration.ofSeconds(5));
+        assertNull(plain.getResponse().getStatusCode());
+
+        MockServerWebExchange compressed = exchange("gzip", gzip);
+        filter.filter(compressed, e -> Mono.error(new AssertionError("Chain must not be invoked")))
+                .block(Duration.ofSeconds(5));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, compressed.getResponse().getStatusCode());
+    }
+
+    @Test
+    void shouldGuardEverySpliceAndJobUpload() {
+        byte[] body = CSV.getBytes(StandardCharsets.UTF_8);
+        AdmissionControlFilter filter = filter(body.length / 2);
+
+        for (String path : new String[]{"/api/v1/enrich/splice", "/api/v1/jobs"}) {
+            MockServerWebExchange exchange = exchange(path, null, body);
+            filter.filter(exchange, e -> Mono.error(new AssertionError("Chain must not be invoked")))
+                    .block(Duration.ofSeconds(5));
+            assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, exchange.getResponse().getStatusCode(), path);
+        }
+    }
+
+    private static AdmissionControlFilter filter(long budgetBytes) {
+        AdmissionConfiguration config = new AdmissionConfiguration();
+        config.setMemoryAmplification(1.0);
+        return new AdmissionControlFilter(config, new MemoryBudget(budgetBytes),
+                new AdaptiveConcurrencyLimiter(1, 1, 1, 0, Duration.ofSeconds(1), 2.0),
+                new EnrichmentMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static MockServerWebExchange exchange(String encoding, byte[] body) {
+        return exchange("/api/v1/enrich", encoding, body);
+    }
+
+    private static MockServerWebExchange exchange(String path, String encoding, byte[] body) {
+        MockServerHttpRequest.BodyBuilder request = MockServerHttpRequest.post(path)
+                .contentLength(body.length);
+        if (encoding != null) {
+            request.header(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        return MockServerWebExchange.from(request.body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))));
+    }
+}
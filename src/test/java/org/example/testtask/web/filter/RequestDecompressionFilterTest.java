@@ -0,0 +1,94 @@
+package org.example.testtask.web.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RequestDecompressionFilterTest {
+
+    private static final String CSV = "date,productId,currency,price\n" + "20160101,1,EUR,10.0\n".repeat(20_000);
+
+    private final RequestDecompressionFilter filter = new RequestDecompressionFilter();
+
+    @Test
+    void shouldStreamGzipBody() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(CSV, filterBody("gzip", bytes.toByteArray()));
+    }
+
+    @Test
+    void shouldStreamZlibAndRawDeflateBodies() throws IOException {
+        assertEquals(CSV, filterBody("deflate", deflate(false)));
+        assertEquals(CSV, filterBody("deflate", deflate(true)));
+    }
+
+    @Test
+    void shouldRejectUnsupportedEncoding() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/enrich")
+                .header(HttpHeaders.CONTENT_ENCODING, "br")
+                .body("ignored"));
+
+        filter.filter(exchange, e -> Mono.error(new AssertionError("Chain must not be invoked"))).block();
+
+        assertEquals(HttpStatus.UNSUPPORTED_MEDIA_TYPE, exchange.getResponse().getStatusCode());
+    }
+
+    private String filterBody(String encoding, byte[] compressed) {
+        Flux<DataBuffer> body = Flux.range(0, (compressed.length + 4095) / 4096)
+                .map(i -> {
+                    int from = i * 4096;
+                    int length = Math.min(4096, compressed.length - from);
+                    return DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOfRange(compressed, from, from + length));
+                });
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/enrich")
+                .header(HttpHeaders.CONTENT_ENCODING, encoding)
+                .contentLength(compressed.length)
+                .body(body));
+
+        AtomicReference<String> decoded = new AtomicReference<>();
+        filter.filter(exchange, (ServerWebExchange filtered) -> {
+                    assertNull(filtered.getRequest().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+                    return DataBufferUtils.join(filtered.getRequest().getBody())
+                            .doOnNext(joined -> {
+                                decoded.set(joined.toString(StandardCharsets.UTF_8));
+                                DataBufferUtils.release(joined);
+                            })
+                            .then();
+                })
+                .block(Duration.ofSeconds(10));
+        return decoded.get();
+    }
+
+    private static byte[] deflate(boolean raw) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            out.write(CSV.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}